@@ -5,7 +5,10 @@ import org.jetbrains.annotations.NotNull;
 import com.intellij.lexer.FlexAdapter;
 import com.intellij.lexer.LayeredLexer;
 import com.intellij.lexer.Lexer;
+import com.intellij.lexer.RestartableLexer;
+import com.intellij.lexer.TokenIterator;
 import com.mayreh.intellij.plugin.tlaplus.TLAplusSyntaxHighlighter;
+import com.mayreh.intellij.plugin.tlaplus.lexer.TLAplusLexerState;
 import com.mayreh.intellij.plugin.tlaplus.lexer._PlusCalAlgorithmBeginLexer;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes;
 
@@ -15,12 +18,31 @@ public class PlusCalSyntaxHighlighter extends TLAplusSyntaxHighlighter {
         return new PlusCalHighlightingLexer();
     }
 
-    public static class PlusCalHighlightingLexer extends LayeredLexer {
+    public static class PlusCalHighlightingLexer extends LayeredLexer implements RestartableLexer {
         public PlusCalHighlightingLexer() {
             super(new PlusCalLexer(true));
 
             registerLayer(new FlexAdapter(new _PlusCalAlgorithmBeginLexer(null)),
                           TLAplusElementTypes.PLUS_CAL_ALGORITHM_BEGIN);
         }
+
+        @Override
+        public int getStartState() {
+            return 0;
+        }
+
+        @Override
+        public boolean isRestartableState(int state) {
+            return TLAplusLexerState.isRestartable(state);
+        }
+
+        @Override
+        public void start(@NotNull CharSequence buffer,
+                          int startOffset,
+                          int endOffset,
+                          int initialState,
+                          TokenIterator tokenIterator) {
+            start(buffer, startOffset, endOffset, initialState);
+        }
     }
 }
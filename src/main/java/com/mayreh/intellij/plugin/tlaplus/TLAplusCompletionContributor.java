@@ -3,6 +3,11 @@ package com.mayreh.intellij.plugin.tlaplus;
 import static com.intellij.patterns.PlatformPatterns.*;
 import static com.mayreh.intellij.plugin.tlaplus.TLAplusCompletionContributor.Patterns.tlaplusElement;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
 import org.jetbrains.annotations.NotNull;
 
 import com.intellij.codeInsight.completion.CompletionContributor;
@@ -10,14 +15,17 @@ import com.intellij.codeInsight.completion.CompletionParameters;
 import com.intellij.codeInsight.completion.CompletionProvider;
 import com.intellij.codeInsight.completion.CompletionResultSet;
 import com.intellij.codeInsight.completion.CompletionType;
+import com.intellij.codeInsight.completion.PrefixMatcher;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.patterns.ElementPattern;
 import com.intellij.patterns.PatternCondition;
 import com.intellij.patterns.PsiElementPattern.Capture;
 import com.intellij.patterns.TreeElementPattern;
 import com.intellij.psi.PsiComment;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiReference;
 import com.intellij.psi.TokenType;
 import com.intellij.psi.tree.TokenSet;
 import com.intellij.psi.util.PsiUtilCore;
@@ -25,6 +33,11 @@ import com.intellij.util.ProcessingContext;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModule;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModuleHeader;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiUtils;
+import com.mayreh.intellij.plugin.tlaplus.psi.ext.TLAplusReference;
+import com.mayreh.intellij.plugin.tlaplus.psi.ext.TLAplusReferenceElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusNamedElementStub.Kind;
 
 public class TLAplusCompletionContributor extends CompletionContributor implements DumbAware {
     public TLAplusCompletionContributor() {
@@ -36,6 +49,9 @@ public class TLAplusCompletionContributor extends CompletionContributor implemen
                tlaplusElement().afterSibling2(psiElement(TLAplusModuleHeader.class))
                                .andNot(psiElement(PsiComment.class)),
                new KeywordCompletionProvider("EXTENDS"));
+        extend(CompletionType.BASIC,
+               psiElement(TLAplusElementTypes.IDENTIFIER).withParent(TLAplusReferenceElement.class),
+               new ReferenceCompletionProvider());
     }
 
     private static class KeywordCompletionProvider extends CompletionProvider<CompletionParameters> {
@@ -54,6 +70,65 @@ public class TLAplusCompletionContributor extends CompletionContributor implemen
         }
     }
 
+    /**
+     * Completes names which the reference can refer to.
+     *
+     * Names are filtered by the prefix before lookup elements are created, and at most {@link #MAX_VARIANTS}
+     * elements are added so that completion stays responsive in modules with many reachable definitions.
+     * When the list is cut off, completion is restarted on typing so that narrower prefixes are re-queried.
+     */
+    private static class ReferenceCompletionProvider extends CompletionProvider<CompletionParameters> {
+        static final int MAX_VARIANTS = 500;
+
+        @Override
+        protected void addCompletions(@NotNull CompletionParameters parameters,
+                                      @NotNull ProcessingContext context,
+                                      @NotNull CompletionResultSet result) {
+            PsiElement position = parameters.getPosition();
+            PsiReference reference = position.getParent().getReference();
+            if (!(reference instanceof TLAplusReference)) {
+                return;
+            }
+
+            PrefixMatcher matcher = result.getPrefixMatcher();
+            TLAplusReference<?> tlaplusReference = (TLAplusReference<?>) reference;
+            // other modules are looked up from the index, so only local names are completed while indexing
+            Iterator<TLAplusNamedElement> variants =
+                    (DumbService.isDumb(position.getProject()) ?
+                     tlaplusReference.localCompletionVariants(matcher::prefixMatches) :
+                     tlaplusReference.completionVariants(matcher::prefixMatches)).iterator();
+            // same definition may be reachable through multiple paths (e.g. diamond EXTENDS)
+            Set<TLAplusNamedElement> added = new HashSet<>();
+            while (variants.hasNext() && !result.isStopped()) {
+                if (added.size() >= MAX_VARIANTS) {
+                    result.restartCompletionOnAnyPrefixChange();
+                    return;
+                }
+                TLAplusNamedElement variant = variants.next();
+                String name = variant.getName();
+                if (name != null && added.add(variant)) {
+                    result.addElement(lookupElement(variant, name));
+                }
+            }
+        }
+
+        private static @NotNull LookupElementBuilder lookupElement(@NotNull TLAplusNamedElement variant,
+                                                                   @NotNull String name) {
+            Kind kind = TLAplusPsiUtils.kind(variant);
+            int arity = TLAplusPsiUtils.arity(variant);
+            LookupElementBuilder builder = LookupElementBuilder.create(variant, name)
+                                                               .withIcon(variant.getIcon(0));
+            if (kind != null) {
+                builder = builder.withTypeText(kind.name().toLowerCase().replace('_', ' '));
+            }
+            if (arity > 0) {
+                String args = String.join(", ", Collections.nCopies(arity, "_"));
+                builder = builder.withTailText(kind == Kind.FUNCTION ? "[" + args + "]" : "(" + args + ")", true);
+            }
+            return builder;
+        }
+    }
+
     static class Patterns<T extends PsiElement> extends Capture<T> {
         private static final TokenSet SKIP_TOKENS = TokenSet.create(
                 TLAplusElementTypes.COMMENT,
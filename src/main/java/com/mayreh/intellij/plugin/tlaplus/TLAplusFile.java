@@ -11,6 +11,10 @@ import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.openapi.util.Key;
 import com.intellij.psi.FileViewProvider;
 import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.stubs.StubTree;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModule;
 
 public class TLAplusFile extends PsiFileBase {
     /**
@@ -38,6 +42,25 @@ public class TLAplusFile extends PsiFileBase {
         return getCopyableUserData(DIRECTORY_KEY);
     }
 
+    /**
+     * The top-level module of the file.
+     *
+     * Taken from the stub tree unless the AST is loaded, so that looking up the module in unopened files
+     * doesn't parse them.
+     */
+    public @Nullable TLAplusModule module() {
+        StubTree stubTree = getStubTree();
+        if (stubTree != null) {
+            for (StubElement<?> stub : stubTree.getRoot().getChildrenStubs()) {
+                if (stub.getPsi() instanceof TLAplusModule) {
+                    return (TLAplusModule) stub.getPsi();
+                }
+            }
+            return null;
+        }
+        return PsiTreeUtil.findChildOfType(this, TLAplusModule.class);
+    }
+
     @Override
     public @NotNull FileType getFileType() {
         return TLAplusFileType.INSTANCE;
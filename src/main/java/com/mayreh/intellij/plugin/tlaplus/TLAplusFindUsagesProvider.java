@@ -7,12 +7,18 @@ import org.jetbrains.annotations.Nullable;
 
 import com.intellij.lang.HelpID;
 import com.intellij.lang.cacheBuilder.DefaultWordsScanner;
+import com.intellij.lang.cacheBuilder.WordOccurrence;
+import com.intellij.lang.cacheBuilder.WordOccurrence.Kind;
 import com.intellij.lang.cacheBuilder.WordsScanner;
 import com.intellij.lang.findUsages.FindUsagesProvider;
+import com.intellij.lexer.Lexer;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.tree.TokenSet;
-import com.mayreh.intellij.plugin.tlaplus.lexer.TLAplusLexer;
+import com.intellij.util.Processor;
+import com.mayreh.intellij.plugin.tlaplus.lexer.TLAplusIndexingLexer;
+import com.mayreh.intellij.plugin.tlaplus.lexer.TLAplusPlusCalCommentLexer;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
 
@@ -52,11 +58,73 @@ public class TLAplusFindUsagesProvider implements FindUsagesProvider {
     }
 
     static class TLAplusWordScanner extends DefaultWordsScanner {
+        private final Lexer lexer;
+        private final Lexer plusCalCommentLexer = new TLAplusPlusCalCommentLexer();
+
         TLAplusWordScanner() {
-            super(new TLAplusLexer(false),
+            this(new TLAplusIndexingLexer());
+        }
+
+        private TLAplusWordScanner(Lexer lexer) {
+            super(lexer,
                   TokenSet.create(TLAplusElementTypes.IDENTIFIER),
                   TLAplusParserDefinition.COMMENT_TOKENS,
                   TokenSet.EMPTY);
+            this.lexer = lexer;
+        }
+
+        @Override
+        public int getVersion() {
+            // bumped when words in PlusCal algorithms started to be reported as foreign language
+            return 1;
+        }
+
+        @Override
+        public void processWords(@NotNull CharSequence fileText, @NotNull Processor<? super WordOccurrence> processor) {
+            WordOccurrence occurrence = new WordOccurrence(fileText, 0, 0, null);
+            lexer.start(fileText);
+            IElementType type;
+            while ((type = lexer.getTokenType()) != null) {
+                int start = lexer.getTokenStart();
+                int end = lexer.getTokenEnd();
+                if (type == TLAplusElementTypes.IDENTIFIER) {
+                    if (!stripWords(processor, fileText, start, end, Kind.CODE, occurrence, false)) {
+                        return;
+                    }
+                } else if (type == TLAplusElementTypes.COMMENT) {
+                    if (!processComment(fileText, start, end, processor, occurrence)) {
+                        return;
+                    }
+                }
+                lexer.advance();
+            }
+        }
+
+        /**
+         * Words inside PlusCal algorithm are reported as {@link Kind#FOREIGN_LANGUAGE}
+         * (PlusCal is injected into the comment) so that they can be told apart from words in plain comments.
+         */
+        private boolean processComment(CharSequence fileText,
+                                       int start,
+                                       int end,
+                                       Processor<? super WordOccurrence> processor,
+                                       WordOccurrence occurrence) {
+            plusCalCommentLexer.start(fileText, start, end);
+            IElementType type;
+            while ((type = plusCalCommentLexer.getTokenType()) != null) {
+                Kind kind = type == TLAplusElementTypes.COMMENT_PLUS_CAL ? Kind.FOREIGN_LANGUAGE : Kind.COMMENTS;
+                if (!stripWords(processor,
+                                fileText,
+                                plusCalCommentLexer.getTokenStart(),
+                                plusCalCommentLexer.getTokenEnd(),
+                                kind,
+                                occurrence,
+                                false)) {
+                    return false;
+                }
+                plusCalCommentLexer.advance();
+            }
+            return true;
         }
     }
 }
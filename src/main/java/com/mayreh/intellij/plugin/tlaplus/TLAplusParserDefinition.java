@@ -15,9 +15,10 @@ import com.intellij.psi.tree.TokenSet;
 import com.mayreh.intellij.plugin.tlaplus.lexer.TLAplusLexer;
 import com.mayreh.intellij.plugin.tlaplus.parser.TLAplusParser;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusFileStubElementType;
 
 public class TLAplusParserDefinition implements ParserDefinition {
-    public static final IFileElementType FILE = new IFileElementType(TLAplusLanguage.INSTANCE);
+    public static final IFileElementType FILE = new TLAplusFileStubElementType();
     public static final TokenSet COMMENT_TOKENS = TokenSet.create(
             TLAplusElementTypes.COMMENT,
             TLAplusElementTypes.COMMENT_PLUS_CAL);
@@ -7,11 +7,14 @@ import org.jetbrains.annotations.NotNull;
 import com.intellij.lexer.FlexAdapter;
 import com.intellij.lexer.LayeredLexer;
 import com.intellij.lexer.Lexer;
+import com.intellij.lexer.RestartableLexer;
+import com.intellij.lexer.TokenIterator;
 import com.intellij.openapi.editor.DefaultLanguageHighlighterColors;
 import com.intellij.openapi.editor.colors.TextAttributesKey;
 import com.intellij.openapi.fileTypes.SyntaxHighlighterBase;
 import com.intellij.psi.tree.IElementType;
 import com.mayreh.intellij.plugin.tlaplus.lexer.TLAplusLexer;
+import com.mayreh.intellij.plugin.tlaplus.lexer.TLAplusLexerState;
 import com.mayreh.intellij.plugin.tlaplus.lexer.TokenSets;
 import com.mayreh.intellij.plugin.tlaplus.lexer._TLAplusModuleBeginLexer;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes;
@@ -45,13 +48,32 @@ public class TLAplusSyntaxHighlighter extends SyntaxHighlighterBase {
         return new TLAplusHighlightingLexer();
     }
 
-    public static class TLAplusHighlightingLexer extends LayeredLexer {
+    public static class TLAplusHighlightingLexer extends LayeredLexer implements RestartableLexer {
         public TLAplusHighlightingLexer() {
             super(new TLAplusLexer(true));
 
             registerLayer(new FlexAdapter(new _TLAplusModuleBeginLexer(null)),
                           TLAplusElementTypes.MODULE_BEGIN);
         }
+
+        @Override
+        public int getStartState() {
+            return 0;
+        }
+
+        @Override
+        public boolean isRestartableState(int state) {
+            return TLAplusLexerState.isRestartable(state);
+        }
+
+        @Override
+        public void start(@NotNull CharSequence buffer,
+                          int startOffset,
+                          int endOffset,
+                          int initialState,
+                          TokenIterator tokenIterator) {
+            start(buffer, startOffset, endOffset, initialState);
+        }
     }
 
     @Override
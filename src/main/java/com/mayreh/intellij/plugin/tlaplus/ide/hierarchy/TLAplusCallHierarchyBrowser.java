@@ -0,0 +1,75 @@
+package com.mayreh.intellij.plugin.tlaplus.ide.hierarchy;
+
+import java.util.Comparator;
+import java.util.Map;
+
+import javax.swing.JTree;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.ide.hierarchy.CallHierarchyBrowserBase;
+import com.intellij.ide.hierarchy.HierarchyBrowserManager;
+import com.intellij.ide.hierarchy.HierarchyNodeDescriptor;
+import com.intellij.ide.hierarchy.HierarchyTreeStructure;
+import com.intellij.ide.util.treeView.AlphaComparator;
+import com.intellij.ide.util.treeView.NodeDescriptor;
+import com.intellij.ide.util.treeView.SourceComparator;
+import com.intellij.openapi.actionSystem.ActionGroup;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.ActionPlaces;
+import com.intellij.openapi.actionSystem.IdeActions;
+import com.intellij.psi.PsiElement;
+import com.intellij.ui.PopupHandler;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.ext.TLAplusDependencyIndex;
+
+public class TLAplusCallHierarchyBrowser extends CallHierarchyBrowserBase {
+    public TLAplusCallHierarchyBrowser(@NotNull PsiElement definition) {
+        super(definition.getProject(), definition);
+    }
+
+    @Override
+    protected void createTrees(@NotNull Map<? super String, ? super JTree> type2TreeMap) {
+        ActionGroup group = (ActionGroup) ActionManager.getInstance().getAction(IdeActions.GROUP_CALL_HIERARCHY_POPUP);
+        type2TreeMap.put(getCalleeType(), createCallTree(group));
+        type2TreeMap.put(getCallerType(), createCallTree(group));
+    }
+
+    private @NotNull JTree createCallTree(@NotNull ActionGroup group) {
+        JTree tree = createTree(false);
+        PopupHandler.installPopupHandler(
+                tree, group, ActionPlaces.CALL_HIERARCHY_VIEW_POPUP, ActionManager.getInstance());
+        return tree;
+    }
+
+    @Override
+    protected @Nullable PsiElement getElementFromDescriptor(@NotNull HierarchyNodeDescriptor descriptor) {
+        return descriptor.getPsiElement();
+    }
+
+    @Override
+    protected boolean isApplicableElement(@NotNull PsiElement element) {
+        return element instanceof TLAplusNamedElement &&
+               TLAplusDependencyIndex.isDefinition((TLAplusNamedElement) element);
+    }
+
+    @Override
+    protected @Nullable HierarchyTreeStructure createHierarchyTreeStructure(@NotNull String type,
+                                                                            @NotNull PsiElement psiElement) {
+        TLAplusNamedElement definition = (TLAplusNamedElement) psiElement;
+        if (getCallerType().equals(type)) {
+            return new TLAplusCallTreeStructure(myProject, definition, TLAplusDependencyIndex::directUsers);
+        }
+        if (getCalleeType().equals(type)) {
+            return new TLAplusCallTreeStructure(myProject, definition, TLAplusDependencyIndex::directDependencies);
+        }
+        return null;
+    }
+
+    @Override
+    protected @Nullable Comparator<NodeDescriptor<?>> getComparator() {
+        return HierarchyBrowserManager.getInstance(myProject).getState().SORT_ALPHABETICALLY ?
+               AlphaComparator.INSTANCE : SourceComparator.INSTANCE;
+    }
+}
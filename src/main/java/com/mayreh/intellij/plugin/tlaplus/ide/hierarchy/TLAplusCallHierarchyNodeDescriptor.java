@@ -0,0 +1,45 @@
+package com.mayreh.intellij.plugin.tlaplus.ide.hierarchy;
+
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.ide.hierarchy.HierarchyNodeDescriptor;
+import com.intellij.ide.util.treeView.NodeDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ui.util.CompositeAppearance;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+
+/**
+ * Node of a definition, presented as its name and the file name.
+ */
+class TLAplusCallHierarchyNodeDescriptor extends HierarchyNodeDescriptor {
+    TLAplusCallHierarchyNodeDescriptor(@NotNull Project project,
+                                       @Nullable NodeDescriptor<?> parentDescriptor,
+                                       @NotNull PsiElement element,
+                                       boolean isBase) {
+        super(project, parentDescriptor, element, isBase);
+    }
+
+    @Override
+    public boolean update() {
+        boolean changes = super.update();
+        PsiElement element = getPsiElement();
+        if (!(element instanceof TLAplusNamedElement)) {
+            return invalidElement();
+        }
+
+        CompositeAppearance oldText = myHighlightedText;
+        myHighlightedText = new CompositeAppearance();
+        myHighlightedText.getEnding().addText(String.valueOf(((TLAplusNamedElement) element).getName()));
+        PsiFile file = element.getContainingFile();
+        if (file != null) {
+            myHighlightedText.getEnding().addText(" (" + file.getName() + ")", getPackageNameAttributes());
+        }
+        myName = myHighlightedText.getText();
+        return changes || !Objects.equals(myHighlightedText, oldText);
+    }
+}
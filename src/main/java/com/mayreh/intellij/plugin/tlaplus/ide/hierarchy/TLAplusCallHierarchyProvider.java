@@ -0,0 +1,39 @@
+package com.mayreh.intellij.plugin.tlaplus.ide.hierarchy;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.ide.hierarchy.CallHierarchyBrowserBase;
+import com.intellij.ide.hierarchy.HierarchyBrowser;
+import com.intellij.ide.hierarchy.HierarchyProvider;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.psi.PsiElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.ext.TLAplusDependencyIndex;
+
+/**
+ * Shows the definitions which use (callers) or are used by (callees) the definition at caret.
+ */
+public class TLAplusCallHierarchyProvider implements HierarchyProvider {
+    @Override
+    public @Nullable PsiElement getTarget(@NotNull DataContext dataContext) {
+        // the definition is resolved from the reference if the caret is on a reference
+        PsiElement element = CommonDataKeys.PSI_ELEMENT.getData(dataContext);
+        if (element instanceof TLAplusNamedElement && TLAplusDependencyIndex.isDefinition(
+                (TLAplusNamedElement) element)) {
+            return element;
+        }
+        return null;
+    }
+
+    @Override
+    public @NotNull HierarchyBrowser createHierarchyBrowser(@NotNull PsiElement target) {
+        return new TLAplusCallHierarchyBrowser(target);
+    }
+
+    @Override
+    public void browserActivated(@NotNull HierarchyBrowser hierarchyBrowser) {
+        ((TLAplusCallHierarchyBrowser) hierarchyBrowser).changeView(CallHierarchyBrowserBase.getCallerType());
+    }
+}
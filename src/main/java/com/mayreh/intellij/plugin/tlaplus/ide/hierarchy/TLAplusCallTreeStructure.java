@@ -0,0 +1,38 @@
+package com.mayreh.intellij.plugin.tlaplus.ide.hierarchy;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.ide.hierarchy.HierarchyNodeDescriptor;
+import com.intellij.ide.hierarchy.HierarchyTreeStructure;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.ArrayUtilRt;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+
+/**
+ * Tree of definitions, whose children are given by the function (i.e. users or dependencies).
+ * Children are computed only when the node is expanded, so recursive definitions don't cause infinite tree.
+ */
+class TLAplusCallTreeStructure extends HierarchyTreeStructure {
+    private final Function<TLAplusNamedElement, List<TLAplusNamedElement>> children;
+
+    TLAplusCallTreeStructure(@NotNull Project project,
+                             @NotNull TLAplusNamedElement definition,
+                             @NotNull Function<TLAplusNamedElement, List<TLAplusNamedElement>> children) {
+        super(project, new TLAplusCallHierarchyNodeDescriptor(project, null, definition, true));
+        this.children = children;
+    }
+
+    @Override
+    protected Object @NotNull [] buildChildren(@NotNull HierarchyNodeDescriptor descriptor) {
+        if (!(descriptor.getPsiElement() instanceof TLAplusNamedElement)) {
+            return ArrayUtilRt.EMPTY_OBJECT_ARRAY;
+        }
+        return children.apply((TLAplusNamedElement) descriptor.getPsiElement())
+                       .stream()
+                       .map(child -> new TLAplusCallHierarchyNodeDescriptor(myProject, descriptor, child, false))
+                       .toArray();
+    }
+}
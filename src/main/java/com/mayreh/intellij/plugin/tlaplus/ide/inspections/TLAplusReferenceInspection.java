@@ -0,0 +1,221 @@
+package com.mayreh.intellij.plugin.tlaplus.ide.inspections;
+
+import java.util.List;
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiPolyVariantReference;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtilCore;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusDashdotOpLhs;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusExpr;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusFuncName;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusGeneralIdentifier;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusIdentifierArgsExpr;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusInfixOpLhs;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusInstance;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusInstancePrefix;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusLambdaExpr;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModuleRef;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusOpDefinition;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPostfixOpLhs;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPrefixOpLhs;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiUtils;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusQuantifierExpr;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusSubstitutingIdent;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusTemporalQuantifierExpr;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusUnqualifiedIdent;
+import com.mayreh.intellij.plugin.tlaplus.psi.ext.TLAplusReferenceElement;
+
+/**
+ * Reports references which cannot be resolved, and operators applied with wrong number of arguments.
+ *
+ * Resolve results are read from the cache which is shared with highlighting,
+ * and the inspection visits only the elements in the range affected by an edit,
+ * so re-inspecting a large module after an edit only checks the edited definitions.
+ */
+public class TLAplusReferenceInspection extends LocalInspectionTool {
+    private static final Set<String> BUILTIN_CONSTANTS = Set.of("TRUE", "FALSE", "BOOLEAN", "STRING");
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return new PsiElementVisitor() {
+            @Override
+            public void visitElement(@NotNull PsiElement element) {
+                if (element instanceof TLAplusReferenceElement) {
+                    checkUnresolved(holder, (TLAplusReferenceElement) element);
+                }
+                if (element instanceof TLAplusIdentifierArgsExpr) {
+                    checkArity(holder, (TLAplusIdentifierArgsExpr) element);
+                }
+            }
+        };
+    }
+
+    private static void checkUnresolved(@NotNull ProblemsHolder holder, @NotNull TLAplusReferenceElement element) {
+        PsiReference reference = element.getReference();
+        if (reference == null || reference.resolve() != null) {
+            return;
+        }
+        if (isBuiltinConstant(element)) {
+            return;
+        }
+        // report only the first unresolved part of qualified names
+        if (!isQualifierResolved(element) || isBoundByIdentifier(element)) {
+            return;
+        }
+        holder.registerProblem(element,
+                               "Cannot resolve symbol '" + element.getReferenceName() + "'",
+                               ProblemHighlightType.LIKE_UNKNOWN_SYMBOL);
+    }
+
+    private static void checkArity(@NotNull ProblemsHolder holder, @NotNull TLAplusIdentifierArgsExpr expr) {
+        TLAplusUnqualifiedIdent ident = expr.getGeneralIdentifier().getUnqualifiedIdent();
+        PsiReference reference = ident.getReference();
+        if (!(reference instanceof PsiPolyVariantReference)) {
+            return;
+        }
+        ResolveResult[] results = ((PsiPolyVariantReference) reference).multiResolve(false);
+        if (results.length == 0 || !(results[0].getElement() instanceof TLAplusNamedElement)) {
+            return;
+        }
+        TLAplusNamedElement definition = (TLAplusNamedElement) results[0].getElement();
+        // functions are applied by f[x], so they take no arguments as operators
+        int expected = definition instanceof TLAplusFuncName ? 0 : TLAplusPsiUtils.arity(definition);
+        int actual = countArguments(expr);
+        if (expected != actual) {
+            holder.registerProblem(
+                    ident,
+                    "'" + ident.getReferenceName() + "' takes " + expected + " argument(s) but " +
+                    actual + " given");
+        }
+    }
+
+    private static int countArguments(@NotNull TLAplusIdentifierArgsExpr expr) {
+        // arguments are separated by commas which are direct children of the expression
+        int commas = 0;
+        for (PsiElement child = expr.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (PsiUtilCore.getElementType(child) == TLAplusElementTypes.COMMA) {
+                commas++;
+            }
+        }
+        return commas + 1;
+    }
+
+    /**
+     * Returns true if the module or instance which qualifies the reference is resolved.
+     */
+    private static boolean isQualifierResolved(@NotNull TLAplusReferenceElement element) {
+        if (element instanceof TLAplusUnqualifiedIdent &&
+            element.getParent() instanceof TLAplusGeneralIdentifier) {
+            TLAplusInstancePrefix prefix = ((TLAplusGeneralIdentifier) element.getParent()).getInstancePrefix();
+            if (prefix != null) {
+                List<TLAplusModuleRef> refs = prefix.getModuleRefList();
+                return refs.isEmpty() || isResolved(refs.get(refs.size() - 1));
+            }
+        }
+        if (element instanceof TLAplusModuleRef && element.getParent() instanceof TLAplusInstancePrefix) {
+            List<TLAplusModuleRef> refs = ((TLAplusInstancePrefix) element.getParent()).getModuleRefList();
+            int index = refs.indexOf(element);
+            return index <= 0 || isResolved(refs.get(index - 1));
+        }
+        if (element instanceof TLAplusSubstitutingIdent) {
+            TLAplusInstance instance = PsiTreeUtil.getParentOfType(element, TLAplusInstance.class);
+            return instance != null && isResolved(instance.getModuleRef());
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the reference is one of the built-in constants, which are defined by no module
+     * but are lexed as identifiers.
+     */
+    private static boolean isBuiltinConstant(@NotNull TLAplusReferenceElement element) {
+        if (!(element instanceof TLAplusUnqualifiedIdent)) {
+            return false;
+        }
+        if (element.getParent() instanceof TLAplusGeneralIdentifier &&
+            ((TLAplusGeneralIdentifier) element.getParent()).getInstancePrefix() != null) {
+            return false;
+        }
+        return BUILTIN_CONSTANTS.contains(element.getReferenceName());
+    }
+
+    private static boolean isResolved(@Nullable TLAplusReferenceElement element) {
+        return element != null && element.getReference() != null && element.getReference().resolve() != null;
+    }
+
+    /**
+     * Returns true if the name is bound by plain identifiers which aren't resolved to,
+     * i.e. parameters of LAMBDA or infix, prefix and postfix operator definitions, or unbounded quantifiers.
+     * The identifiers bind the name only inside the body of the binder.
+     */
+    private static boolean isBoundByIdentifier(@NotNull TLAplusReferenceElement element) {
+        String name = element.getReferenceName();
+        for (PsiElement parent = element.getParent();
+             parent != null && !(parent instanceof PsiFile);
+             parent = parent.getParent()) {
+            PsiElement identifiers = boundIdentifiers(parent);
+            if (identifiers == null || !PsiTreeUtil.isAncestor(body(parent), element, false)) {
+                continue;
+            }
+            for (PsiElement child = identifiers.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (isIdentifier(child, name)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the element whose IDENTIFIER children are bound by the binder, or null if the element binds
+     * no plain identifiers.
+     */
+    private static @Nullable PsiElement boundIdentifiers(@NotNull PsiElement binder) {
+        if (binder instanceof TLAplusLambdaExpr ||
+            binder instanceof TLAplusQuantifierExpr ||
+            binder instanceof TLAplusTemporalQuantifierExpr) {
+            return binder;
+        }
+        if (binder instanceof TLAplusOpDefinition) {
+            for (PsiElement child = binder.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child instanceof TLAplusInfixOpLhs ||
+                    child instanceof TLAplusPrefixOpLhs ||
+                    child instanceof TLAplusPostfixOpLhs ||
+                    child instanceof TLAplusDashdotOpLhs) {
+                    return child;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the body of the binder, which is the last expression of it.
+     */
+    private static @Nullable PsiElement body(@NotNull PsiElement binder) {
+        for (PsiElement child = binder.getLastChild(); child != null; child = child.getPrevSibling()) {
+            if (child instanceof TLAplusExpr) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isIdentifier(@NotNull PsiElement element, @NotNull String name) {
+        return PsiUtilCore.getElementType(element) == TLAplusElementTypes.IDENTIFIER && name.equals(element.getText());
+    }
+}
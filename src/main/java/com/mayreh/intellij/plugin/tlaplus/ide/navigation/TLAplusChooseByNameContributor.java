@@ -0,0 +1,61 @@
+package com.mayreh.intellij.plugin.tlaplus.ide.navigation;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.navigation.ChooseByNameContributorEx;
+import com.intellij.navigation.NavigationItem;
+import com.intellij.openapi.project.PossiblyDumbAware;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.stubs.StubIndexKey;
+import com.intellij.util.Processor;
+import com.intellij.util.indexing.DumbModeAccessType;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FindSymbolParameters;
+import com.intellij.util.indexing.IdFilter;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusDefinitionIndex;
+
+/**
+ * Base class of contributors which look up definitions only from the stub index,
+ * so that no file is parsed on lookup.
+ * Stubs are reliable even while indexing, so lookup is also available in dumb mode when the platform allows it.
+ */
+abstract class TLAplusChooseByNameContributor implements ChooseByNameContributorEx, PossiblyDumbAware {
+    /**
+     * Key of the index whose keys are the names to be listed.
+     */
+    protected abstract @NotNull StubIndexKey<String, ?> namesKey();
+
+    /**
+     * Returns true if the definition should be listed.
+     */
+    protected abstract boolean accepts(@NotNull TLAplusNamedElement definition);
+
+    @Override
+    public void processNames(@NotNull Processor<? super String> processor,
+                             @NotNull GlobalSearchScope scope,
+                             @Nullable IdFilter filter) {
+        FileBasedIndex.getInstance().ignoreDumbMode(
+                () -> StubIndex.getInstance().processAllKeys(namesKey(), processor, scope, filter),
+                DumbModeAccessType.RELIABLE_DATA_ONLY);
+    }
+
+    @Override
+    public void processElementsWithName(@NotNull String name,
+                                        @NotNull Processor<? super NavigationItem> processor,
+                                        @NotNull FindSymbolParameters parameters) {
+        FileBasedIndex.getInstance().ignoreDumbMode(
+                () -> StubIndex.getInstance().processElements(
+                        TLAplusDefinitionIndex.KEY, name, parameters.getProject(), parameters.getSearchScope(),
+                        parameters.getIdFilter(), TLAplusNamedElement.class,
+                        definition -> !accepts(definition) || processor.process(definition)),
+                DumbModeAccessType.RELIABLE_DATA_ONLY);
+    }
+
+    @Override
+    public boolean isDumbAware() {
+        return FileBasedIndex.isIndexAccessDuringDumbModeEnabled();
+    }
+}
@@ -0,0 +1,38 @@
+package com.mayreh.intellij.plugin.tlaplus.ide.navigation;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.navigation.GotoClassContributor;
+import com.intellij.navigation.NavigationItem;
+import com.intellij.psi.stubs.StubIndexKey;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiUtils;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusModuleIndex;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusNamedElementStub.Kind;
+
+/**
+ * Lists modules in Go to Class.
+ */
+public class TLAplusGotoClassContributor extends TLAplusChooseByNameContributor implements GotoClassContributor {
+    @Override
+    protected @NotNull StubIndexKey<String, ?> namesKey() {
+        return TLAplusModuleIndex.KEY;
+    }
+
+    @Override
+    protected boolean accepts(@NotNull TLAplusNamedElement definition) {
+        return TLAplusPsiUtils.kind(definition) == Kind.MODULE;
+    }
+
+    @Override
+    public @Nullable String getQualifiedName(NavigationItem item) {
+        // modules are not qualified
+        return item.getName();
+    }
+
+    @Override
+    public @Nullable String getQualifiedNameSeparator() {
+        return null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.mayreh.intellij.plugin.tlaplus.ide.navigation;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.psi.stubs.StubIndexKey;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusDefinitionIndex;
+
+/**
+ * Lists modules, operators, functions, constants and variables in Go to Symbol.
+ */
+public class TLAplusGotoSymbolContributor extends TLAplusChooseByNameContributor {
+    @Override
+    protected @NotNull StubIndexKey<String, ?> namesKey() {
+        return TLAplusDefinitionIndex.KEY;
+    }
+
+    @Override
+    protected boolean accepts(@NotNull TLAplusNamedElement definition) {
+        return true;
+    }
+}
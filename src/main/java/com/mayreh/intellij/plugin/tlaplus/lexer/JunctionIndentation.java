@@ -1,24 +1,28 @@
 package com.mayreh.intellij.plugin.tlaplus.lexer;
 
-import lombok.Value;
-import lombok.experimental.Accessors;
-
-@Value
-@Accessors(fluent = true)
+/**
+ * Junction indentation is encoded in a single int (column in upper bits and {@link Type} in the lowest bit)
+ * so that the lexer doesn't need to allocate an object per junction.
+ */
 public class JunctionIndentation {
     public enum Type {
         And,
         Or,
     }
 
-    Type type;
-    int column;
+    public static int and(int column) {
+        return column << 1;
+    }
+
+    public static int or(int column) {
+        return (column << 1) | 1;
+    }
 
-    public static JunctionIndentation and(int column) {
-        return new JunctionIndentation(Type.And, column);
+    public static Type type(int indentation) {
+        return (indentation & 1) == 0 ? Type.And : Type.Or;
     }
 
-    public static JunctionIndentation or(int column) {
-        return new JunctionIndentation(Type.Or, column);
+    public static int column(int indentation) {
+        return indentation >>> 1;
     }
 }
@@ -0,0 +1,57 @@
+package com.mayreh.intellij.plugin.tlaplus.lexer;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Stack of {@link JunctionIndentation}s encoded in ints.
+ *
+ * Lexer instances are created a lot (highlighting, parsing, indexing, ...) and most specs don't have
+ * deeply nested junctions, so the stack starts small and grows on demand.
+ */
+public class JunctionIndentationStack {
+    private int[] elements = new int[8];
+    private int size = 0;
+
+    public void push(int indentation) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+        }
+        elements[size++] = indentation;
+    }
+
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elements[size - 1];
+    }
+
+    public int pop() {
+        int indentation = peek();
+        size--;
+        return indentation;
+    }
+
+    /**
+     * Returns i-th indentation counted from the bottom of the stack.
+     */
+    public int get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("index: " + i + ", size: " + size);
+        }
+        return elements[i];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,91 @@
+package com.mayreh.intellij.plugin.tlaplus.lexer;
+
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.mayreh.intellij.plugin.util.StringUtil;
+
+/**
+ * Incrementally built table of line start offsets of the lexer buffer.
+ *
+ * {@link _TLAplusLexer} needs the column of the current token for every junction and every token which
+ * may end a junction list.
+ * {@link StringUtil#offsetToColumn} scans back to the previous newline each time, which is quadratic for long lines,
+ * so instead we scan the buffer forward only once as the lexer advances and record line starts.
+ * Lookups for offsets after the last recorded line start (which is the usual case) take O(1),
+ * and others take O(log n).
+ */
+public class LineStartIndex {
+    private CharSequence text = "";
+    private int[] lineStarts = new int[64];
+    private int lineCount = 0;
+    // all newlines before this offset are recorded in lineStarts
+    private int scannedOffset = 0;
+    private int firstLineColumn = 0;
+
+    /**
+     * Reset the index for the text which is going to be lexed from startOffset.
+     */
+    public void reset(@NotNull CharSequence text, int startOffset) {
+        reset(text, startOffset, 0);
+    }
+
+    /**
+     * Reset the index for the text which is going to be lexed from startOffset.
+     *
+     * @param firstLineColumn the column where the text begins.
+     *                        Non-zero when the text is cut out from the middle of a line of the document
+     *                        (e.g. a definition after LOCAL keyword), so that columns on the first line
+     *                        are reported as in the original document.
+     */
+    public void reset(@NotNull CharSequence text, int startOffset, int firstLineColumn) {
+        this.text = text;
+        this.firstLineColumn = firstLineColumn;
+        int lineStart = StringUtil.lineStartOffset(text, startOffset);
+        lineStarts[0] = lineStart == 0 ? -firstLineColumn : lineStart;
+        lineCount = 1;
+        scannedOffset = lineStart;
+    }
+
+    /**
+     * Get column from the offset inside the text.
+     * Behaves same as {@link StringUtil#offsetToColumn}.
+     */
+    public int offsetToColumn(@NotNull CharSequence text, int offset) {
+        if (this.text != text) {
+            reset(text, offset, firstLineColumn);
+        }
+        if (offset >= text.length()) {
+            return -1;
+        }
+        if (offset < lineStarts[0]) {
+            // lexer never goes back beyond the start offset, but just in case
+            return StringUtil.offsetToColumn(text, offset);
+        }
+
+        while (scannedOffset < offset) {
+            if (text.charAt(scannedOffset++) == '\n') {
+                addLineStart(scannedOffset);
+            }
+        }
+
+        int lastLineStart = lineStarts[lineCount - 1];
+        if (lastLineStart <= offset) {
+            return offset - lastLineStart;
+        }
+        int i = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+        if (i < 0) {
+            // insertion point - 1 is the line which contains the offset
+            i = -i - 2;
+        }
+        return offset - lineStarts[i];
+    }
+
+    private void addLineStart(int offset) {
+        if (lineCount == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lineStarts.length * 2);
+        }
+        lineStarts[lineCount++] = offset;
+    }
+}
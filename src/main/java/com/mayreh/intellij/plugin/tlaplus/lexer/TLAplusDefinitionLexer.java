@@ -0,0 +1,24 @@
+package com.mayreh.intellij.plugin.tlaplus.lexer;
+
+import com.intellij.lexer.LayeredLexer;
+import com.intellij.lexer.MergingLexerAdapter;
+import com.intellij.psi.tree.TokenSet;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes;
+
+/**
+ * Lexer for the text of a single module-level definition, which is used to reparse the definition
+ * apart from the rest of the module.
+ *
+ * Tokenizes the text in the same way as {@link TLAplusLexer} does for the definition inside the module,
+ * given that the definition starts with empty junction indentation stack and
+ * the token which follows the definition is at column 0.
+ */
+public class TLAplusDefinitionLexer extends LayeredLexer {
+    public TLAplusDefinitionLexer(int firstLineColumn) {
+        super(new MergingLexerAdapter(
+                new TLAplusFlexAdapter(new _TLAplusLexer(TLAplusLexerMode.TLA_FRAGMENT, firstLineColumn, true)),
+                TokenSet.create(TLAplusElementTypes.COMMENT)));
+
+        registerLayer(new TLAplusPlusCalCommentLexer(), TLAplusElementTypes.COMMENT);
+    }
+}
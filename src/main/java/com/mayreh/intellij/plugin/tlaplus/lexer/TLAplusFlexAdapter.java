@@ -0,0 +1,37 @@
+package com.mayreh.intellij.plugin.tlaplus.lexer;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.lexer.FlexAdapter;
+
+/**
+ * {@link FlexAdapter} which exposes the packed state of {@link _TLAplusLexer} (see {@link TLAplusLexerState})
+ * instead of bare JFlex lexical state, so that lexing can be restarted from any token.
+ */
+public class TLAplusFlexAdapter extends FlexAdapter {
+    public TLAplusFlexAdapter(boolean forHighlighting, TLAplusLexerMode lexerMode) {
+        this(new _TLAplusLexer(forHighlighting, lexerMode));
+    }
+
+    public TLAplusFlexAdapter(_TLAplusLexer flex) {
+        super(flex);
+    }
+
+    @Override
+    public _TLAplusLexer getFlex() {
+        return (_TLAplusLexer) super.getFlex();
+    }
+
+    @Override
+    public void start(@NotNull CharSequence buffer, int startOffset, int endOffset, int initialState) {
+        super.start(buffer, startOffset, endOffset, initialState);
+        getFlex().restoreState(initialState);
+    }
+
+    @Override
+    public int getState() {
+        // locate the token first so that the state is taken at the start of current token
+        super.getState();
+        return getFlex().getTokenStartState();
+    }
+}
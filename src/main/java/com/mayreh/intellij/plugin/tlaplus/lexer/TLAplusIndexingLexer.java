@@ -0,0 +1,19 @@
+package com.mayreh.intellij.plugin.tlaplus.lexer;
+
+import com.intellij.lexer.MergingLexerAdapter;
+import com.intellij.psi.tree.TokenSet;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes;
+
+/**
+ * Lightweight lexer to scan words for indexing.
+ *
+ * Junction tokens don't matter for extracting words, so the lexer skips junction/indent bookkeeping
+ * as well as re-lexing comments for PlusCal algorithms.
+ * PlusCal algorithm in comments should be handled by the caller (See {@link TLAplusPlusCalCommentLexer}).
+ */
+public class TLAplusIndexingLexer extends MergingLexerAdapter {
+    public TLAplusIndexingLexer() {
+        super(new TLAplusFlexAdapter(true, TLAplusLexerMode.TLA),
+              TokenSet.create(TLAplusElementTypes.COMMENT));
+    }
+}
@@ -0,0 +1,122 @@
+package com.mayreh.intellij.plugin.tlaplus.lexer;
+
+import com.mayreh.intellij.plugin.tlaplus.lexer.JunctionIndentation.Type;
+
+/**
+ * Packs the whole state of {@link _TLAplusLexer} into a single int so that
+ * lexing can be restarted from arbitrary token (e.g. incremental highlighting after an edit).
+ *
+ * Bit layout (from LSB):
+ * <pre>
+ *   0-3   : JFlex lexical state
+ *   4-6   : nested block comment level
+ *   7-9   : nested module level
+ *   10-11 : always 0, so that packed states never collide with
+ *           {@link com.intellij.lexer.LayeredLexer}'s in-layer states (1024, 2048)
+ *   12-13 : junction indentation stack size
+ *   14-21 : junction indentation at the bottom of the stack
+ *   22-29 : junction indentation next to the bottom
+ * </pre>
+ * Each junction indentation takes 1 bit for the type and 7 bits for the column.
+ * States which don't fit in this layout (too deep nesting, too many junctions, too large column)
+ * are still packed on best-effort basis but are reported as not restartable.
+ */
+public class TLAplusLexerState {
+    private static final int LEXICAL_STATE_BITS = 4;
+    private static final int LEVEL_BITS = 3;
+    private static final int JUNCTION_SIZE_BITS = 2;
+    private static final int JUNCTION_BITS = 8;
+
+    private static final int BLOCK_COMMENT_LEVEL_SHIFT = LEXICAL_STATE_BITS;
+    private static final int MODULE_LEVEL_SHIFT = BLOCK_COMMENT_LEVEL_SHIFT + LEVEL_BITS;
+    private static final int RESERVED_SHIFT = MODULE_LEVEL_SHIFT + LEVEL_BITS;
+    private static final int JUNCTION_SIZE_SHIFT = RESERVED_SHIFT + 2;
+    private static final int JUNCTION_SHIFT = JUNCTION_SIZE_SHIFT + JUNCTION_SIZE_BITS;
+
+    private static final int LEXICAL_STATE_MASK = (1 << LEXICAL_STATE_BITS) - 1;
+    private static final int LEVEL_MASK = (1 << LEVEL_BITS) - 1;
+    private static final int RESERVED_MASK = 0b11 << RESERVED_SHIFT;
+    private static final int JUNCTION_SIZE_MASK = (1 << JUNCTION_SIZE_BITS) - 1;
+    private static final int JUNCTION_MASK = (1 << JUNCTION_BITS) - 1;
+    private static final int JUNCTION_COLUMN_MASK = JUNCTION_MASK >>> 1;
+    private static final int JUNCTION_TYPE_OR = 1 << (JUNCTION_BITS - 1);
+
+    /**
+     * Max number of junction indentations which can be packed.
+     */
+    public static final int MAX_JUNCTIONS = 2;
+    private static final int JUNCTION_OVERFLOW = JUNCTION_SIZE_MASK;
+
+    public static int pack(int lexicalState,
+                           int nestedBlockCommentLevel,
+                           int nestedModuleLevel,
+                           JunctionIndentationStack indentationStack) {
+        int state = (lexicalState & LEXICAL_STATE_MASK)
+                    | (saturate(nestedBlockCommentLevel) << BLOCK_COMMENT_LEVEL_SHIFT)
+                    | (saturate(nestedModuleLevel) << MODULE_LEVEL_SHIFT);
+
+        int size = indentationStack.size();
+        if (size > MAX_JUNCTIONS) {
+            return state | (JUNCTION_OVERFLOW << JUNCTION_SIZE_SHIFT);
+        }
+        for (int i = 0; i < size; i++) {
+            int indentation = indentationStack.get(i);
+            if (JunctionIndentation.column(indentation) > JUNCTION_COLUMN_MASK) {
+                return state | (JUNCTION_OVERFLOW << JUNCTION_SIZE_SHIFT);
+            }
+            int junction = JunctionIndentation.column(indentation);
+            if (JunctionIndentation.type(indentation) == Type.Or) {
+                junction |= JUNCTION_TYPE_OR;
+            }
+            state |= junction << (JUNCTION_SHIFT + i * JUNCTION_BITS);
+        }
+        return state | (size << JUNCTION_SIZE_SHIFT);
+    }
+
+    public static int lexicalState(int state) {
+        return state & LEXICAL_STATE_MASK;
+    }
+
+    public static int nestedBlockCommentLevel(int state) {
+        return (state >>> BLOCK_COMMENT_LEVEL_SHIFT) & LEVEL_MASK;
+    }
+
+    public static int nestedModuleLevel(int state) {
+        return (state >>> MODULE_LEVEL_SHIFT) & LEVEL_MASK;
+    }
+
+    /**
+     * Returns the number of packed junction indentations.
+     * Returns 0 for the state which is not restartable due to the junction overflow.
+     */
+    public static int junctionStackSize(int state) {
+        int size = (state >>> JUNCTION_SIZE_SHIFT) & JUNCTION_SIZE_MASK;
+        return size == JUNCTION_OVERFLOW ? 0 : size;
+    }
+
+    /**
+     * Returns i-th junction indentation counted from the bottom of the stack.
+     */
+    public static int junction(int state, int i) {
+        int junction = (state >>> (JUNCTION_SHIFT + i * JUNCTION_BITS)) & JUNCTION_MASK;
+        int column = junction & JUNCTION_COLUMN_MASK;
+        if ((junction & JUNCTION_TYPE_OR) != 0) {
+            return JunctionIndentation.or(column);
+        }
+        return JunctionIndentation.and(column);
+    }
+
+    /**
+     * Returns true if the lexer can be restarted from the state without losing any information.
+     */
+    public static boolean isRestartable(int state) {
+        return (state & RESERVED_MASK) == 0
+               && nestedBlockCommentLevel(state) < LEVEL_MASK
+               && nestedModuleLevel(state) < LEVEL_MASK
+               && ((state >>> JUNCTION_SIZE_SHIFT) & JUNCTION_SIZE_MASK) != JUNCTION_OVERFLOW;
+    }
+
+    private static int saturate(int level) {
+        return Math.max(0, Math.min(level, LEVEL_MASK));
+    }
+}
@@ -0,0 +1,165 @@
+package com.mayreh.intellij.plugin.tlaplus.lexer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import com.intellij.lexer.FlexAdapter;
+import com.intellij.lexer.Lexer;
+import com.intellij.lexer.LexerBase;
+import com.intellij.lexer.MergingLexerAdapter;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
+import com.intellij.util.text.CharArrayUtil;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Layer lexer for COMMENT tokens, which splits PlusCal algorithm out of the comment.
+ *
+ * Only comments which may contain PlusCal algorithm are lexed by {@link _TLAplusPlusCalCommentLexer}
+ * and the result is cached by the comment text.
+ * Other comments (e.g. large header comments or license blocks) are returned as single COMMENT token as is,
+ * so they don't pay for the second lexer pass.
+ */
+public class TLAplusPlusCalCommentLexer extends LexerBase {
+    private static final int MAX_CACHED_COMMENTS = 16;
+
+    private final Lexer plusCalLexer = new MergingLexerAdapter(
+            new FlexAdapter(new _TLAplusPlusCalCommentLexer(null)),
+            TokenSet.create(TLAplusElementTypes.COMMENT));
+    private final Map<Integer, LexedComment> cache =
+            new LinkedHashMap<>(MAX_CACHED_COMMENTS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Entry<Integer, LexedComment> eldest) {
+                    return size() > MAX_CACHED_COMMENTS;
+                }
+            };
+
+    private CharSequence buffer = "";
+    private int startOffset;
+    private int endOffset;
+    // null if the comment doesn't contain PlusCal algorithm
+    private @Nullable LexedComment comment;
+    private int tokenIndex;
+
+    /**
+     * Returns true if the comment in given range may contain PlusCal algorithm.
+     * i.e. it contains "--algorithm" or "--fair" where {@link _TLAplusPlusCalCommentLexer} starts PlusCal.
+     */
+    public static boolean mayContainPlusCalAlgorithm(@NotNull CharSequence buffer, int startOffset, int endOffset) {
+        for (int i = startOffset; i + 1 < endOffset; i++) {
+            if (buffer.charAt(i) != '-' || buffer.charAt(i + 1) != '-') {
+                continue;
+            }
+            if (CharArrayUtil.regionMatches(buffer, i + 2, endOffset, "algorithm") ||
+                CharArrayUtil.regionMatches(buffer, i + 2, endOffset, "fair")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void start(@NotNull CharSequence buffer, int startOffset, int endOffset, int initialState) {
+        this.buffer = buffer;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        comment = mayContainPlusCalAlgorithm(buffer, startOffset, endOffset) ? lexedComment() : null;
+        tokenIndex = 0;
+    }
+
+    private LexedComment lexedComment() {
+        int hash = StringUtil.stringHashCode(buffer, startOffset, endOffset);
+        LexedComment cached = cache.get(hash);
+        if (cached != null && cached.matches(buffer, startOffset, endOffset)) {
+            return cached;
+        }
+
+        List<IElementType> types = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        plusCalLexer.start(buffer, startOffset, endOffset);
+        IElementType type;
+        while ((type = plusCalLexer.getTokenType()) != null) {
+            types.add(type);
+            ends.add(plusCalLexer.getTokenEnd() - startOffset);
+            plusCalLexer.advance();
+        }
+        LexedComment lexed = new LexedComment(
+                buffer.subSequence(startOffset, endOffset).toString(),
+                types.toArray(IElementType[]::new),
+                ends.stream().mapToInt(Integer::intValue).toArray());
+        cache.put(hash, lexed);
+        return lexed;
+    }
+
+    @TestOnly
+    int cachedCommentCount() {
+        return cache.size();
+    }
+
+    @Override
+    public int getState() {
+        return 0;
+    }
+
+    @Override
+    public @Nullable IElementType getTokenType() {
+        if (comment == null) {
+            return tokenIndex == 0 && startOffset < endOffset ? TLAplusElementTypes.COMMENT : null;
+        }
+        return tokenIndex < comment.types.length ? comment.types[tokenIndex] : null;
+    }
+
+    @Override
+    public int getTokenStart() {
+        if (comment == null || tokenIndex == 0) {
+            return startOffset;
+        }
+        return startOffset + comment.tokenEnds[tokenIndex - 1];
+    }
+
+    @Override
+    public int getTokenEnd() {
+        if (comment == null) {
+            return endOffset;
+        }
+        return startOffset + comment.tokenEnds[tokenIndex];
+    }
+
+    @Override
+    public void advance() {
+        tokenIndex++;
+    }
+
+    @Override
+    public @NotNull CharSequence getBufferSequence() {
+        return buffer;
+    }
+
+    @Override
+    public int getBufferEnd() {
+        return endOffset;
+    }
+
+    @RequiredArgsConstructor
+    private static class LexedComment {
+        private final String text;
+        private final IElementType[] types;
+        // token end offsets relative to the start of the comment
+        private final int[] tokenEnds;
+
+        boolean matches(CharSequence buffer, int startOffset, int endOffset) {
+            return endOffset - startOffset == text.length()
+                   && CharArrayUtil.regionMatches(buffer, startOffset, endOffset, text);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.mayreh.intellij.plugin.tlaplus.parser;
+
+import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes.JUNCTION_BEGIN;
+import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes.JUNCTION_BREAK;
+import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes.JUNCTION_CONT;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import com.intellij.lang.ITokenTypeRemapper;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+
+/**
+ * Side table which associates each JUNCTION_BEGIN token with JUNCTION_CONT tokens and the JUNCTION_BREAK token
+ * which belong to the same junction-list, in the same way as the lexer manages its indentation stack.
+ *
+ * The table is built by single pass over the whole token stream, when the parser finds the first "false"
+ * JUNCTION_BEGIN (i.e. /\ or \/ which should be parsed as infix-op).
+ * Then JUNCTION_CONT and JUNCTION_BREAK tokens of the false junction-list are remapped to WHITE_SPACE lazily
+ * when the builder reaches them, so that we don't need to walk the tokens forward for each false JUNCTION_BEGIN.
+ *
+ * Note that {@link PsiBuilder#lookAhead} and {@link PsiBuilder#rawLookup} see the tokens before remapping.
+ * That's fine since the only look-ahead in the grammar is the one from JUNCTION_BEGIN in
+ * {@link TLAplusParserUtil}, and the lexer always emits /\ or \/ right after JUNCTION_BEGIN,
+ * so no JUNCTION_CONT or JUNCTION_BREAK can be in between.
+ * Rules which look ahead beyond JUNCTION_CONT or JUNCTION_BREAK must not be added without remapping first.
+ */
+class JunctionTokenTable implements ITokenTypeRemapper {
+    private static final Key<JunctionTokenTable> KEY = Key.create("JunctionTokenTable");
+
+    private final PsiBuilder builder;
+    // raw token index of JUNCTION_BREAK which closes the junction-list started by the JUNCTION_BEGIN at the index
+    private final int[] matchingBreak;
+    // for JUNCTION_BEGIN: raw token index of first JUNCTION_CONT of the junction-list
+    // for JUNCTION_CONT: raw token index of next JUNCTION_CONT of the same junction-list
+    private final int[] nextCont;
+    private final BitSet falseJunctionTokens = new BitSet();
+    // number of tokens visited to build the table and to mark false junction-lists
+    private int visitedTokens;
+
+    private JunctionTokenTable(PsiBuilder builder) {
+        this.builder = builder;
+
+        int current = builder.rawTokenIndex();
+        int tokenCount = current;
+        while (builder.rawLookup(tokenCount - current) != null) {
+            tokenCount++;
+        }
+
+        matchingBreak = new int[tokenCount];
+        nextCont = new int[tokenCount];
+        Arrays.fill(matchingBreak, -1);
+        Arrays.fill(nextCont, -1);
+
+        // indices of open JUNCTION_BEGINs
+        int[] stack = new int[16];
+        // indices of last JUNCTION_CONTs (or JUNCTION_BEGIN if no JUNCTION_CONT yet) of open junction-lists
+        int[] lastConts = new int[16];
+        int depth = 0;
+        for (int i = 0; i < tokenCount; i++) {
+            visitedTokens++;
+            IElementType type = builder.rawLookup(i - current);
+            if (type == JUNCTION_BEGIN) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                    lastConts = Arrays.copyOf(lastConts, depth * 2);
+                }
+                stack[depth] = i;
+                lastConts[depth] = i;
+                depth++;
+            } else if (type == JUNCTION_CONT && depth > 0) {
+                nextCont[lastConts[depth - 1]] = i;
+                lastConts[depth - 1] = i;
+            } else if (type == JUNCTION_BREAK && depth > 0) {
+                depth--;
+                matchingBreak[stack[depth]] = i;
+            }
+        }
+    }
+
+    static @NotNull JunctionTokenTable getOrCreate(PsiBuilder builder) {
+        JunctionTokenTable table = builder.getUserData(KEY);
+        if (table == null) {
+            table = new JunctionTokenTable(builder);
+            builder.putUserData(KEY, table);
+            builder.setTokenTypeRemapper(table);
+        }
+        return table;
+    }
+
+    /**
+     * Mark the junction-list started by the JUNCTION_BEGIN at given raw token index as false,
+     * so that its JUNCTION_CONT and JUNCTION_BREAK tokens will be treated as white spaces.
+     */
+    void markFalseJunction(int beginIndex) {
+        for (int i = nextCont[beginIndex]; i >= 0; i = nextCont[i]) {
+            visitedTokens++;
+            falseJunctionTokens.set(i);
+        }
+        if (matchingBreak[beginIndex] >= 0) {
+            visitedTokens++;
+            falseJunctionTokens.set(matchingBreak[beginIndex]);
+        }
+    }
+
+    @TestOnly
+    static @Nullable JunctionTokenTable get(PsiBuilder builder) {
+        return builder.getUserData(KEY);
+    }
+
+    @TestOnly
+    int tokenCount() {
+        return matchingBreak.length;
+    }
+
+    @TestOnly
+    int visitedTokens() {
+        return visitedTokens;
+    }
+
+    @TestOnly
+    int falseJunctionTokenCount() {
+        return falseJunctionTokens.cardinality();
+    }
+
+    @Override
+    public IElementType filter(IElementType source, int start, int end, CharSequence text) {
+        // builder calls this method for the token at current raw index
+        if ((source == JUNCTION_CONT || source == JUNCTION_BREAK) &&
+            falseJunctionTokens.get(builder.rawTokenIndex())) {
+            return TokenType.WHITE_SPACE;
+        }
+        return source;
+    }
+}
@@ -2,8 +2,6 @@ package com.mayreh.intellij.plugin.tlaplus.parser;
 
 import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes.INFIX_OP;
 import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes.JUNCTION_BEGIN;
-import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes.JUNCTION_BREAK;
-import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes.JUNCTION_CONT;
 import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes.OP_LAND2;
 import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes.OP_LOR2;
 
@@ -12,8 +10,60 @@ import com.intellij.lang.PsiBuilder.Marker;
 import com.intellij.lang.parser.GeneratedParserUtilBase;
 import com.intellij.psi.TokenType;
 import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes;
 
 public class TLAplusParserUtil extends GeneratedParserUtilBase {
+    /**
+     * Tokens which can be an infix-op, except /\ and \/ which need special treatment.
+     */
+    public static final TokenSet INFIX_OP_TOKENS = TokenSet.create(
+            TLAplusElementTypes.BANG, TLAplusElementTypes.OP_NOTEQ, TLAplusElementTypes.OP_SHARPSHARP,
+            TLAplusElementTypes.OP_DOLLAR, TLAplusElementTypes.OP_DOLLARDOLLAR, TLAplusElementTypes.OP_PERCENT,
+            TLAplusElementTypes.OP_PERCENTPERCENT, TLAplusElementTypes.OP_AMP, TLAplusElementTypes.OP_AMPAMP,
+            TLAplusElementTypes.OP_OPLUS, TLAplusElementTypes.OP_OMINUS, TLAplusElementTypes.OP_ODOT,
+            TLAplusElementTypes.OP_OSLASH, TLAplusElementTypes.OP_OTIMES, TLAplusElementTypes.OP_ASTER,
+            TLAplusElementTypes.OP_ASTERASTER, TLAplusElementTypes.OP_PLUS, TLAplusElementTypes.OP_PLUSPLUS,
+            TLAplusElementTypes.OP_DASH, TLAplusElementTypes.OP_DASHPLUSDASHGT,
+            TLAplusElementTypes.OP_DASHDASH, TLAplusElementTypes.OP_DASHVBAR, TLAplusElementTypes.OP_DOTDOT,
+            TLAplusElementTypes.OP_DOTDOTDOT, TLAplusElementTypes.OP_SLASH, TLAplusElementTypes.OP_SLASHSLASH,
+            TLAplusElementTypes.OP_LAND, TLAplusElementTypes.OP_COLONCOLONEQ, TLAplusElementTypes.OP_COLONEQ,
+            TLAplusElementTypes.OP_COLONGT, TLAplusElementTypes.OP_LT, TLAplusElementTypes.OP_LTCOLON,
+            TLAplusElementTypes.OP_EQUIV, TLAplusElementTypes.OP_NOTIN, TLAplusElementTypes.OP_EQ,
+            TLAplusElementTypes.OP_LTEQ, TLAplusElementTypes.OP_EQGT, TLAplusElementTypes.OP_EQVBAR,
+            TLAplusElementTypes.OP_GT, TLAplusElementTypes.OP_GTEQ, TLAplusElementTypes.OP_QUERY,
+            TLAplusElementTypes.OP_QUERYQUERY, TLAplusElementTypes.OP_ATAT, TLAplusElementTypes.OP_SUBTRACT,
+            TLAplusElementTypes.OP_LOR, TLAplusElementTypes.OP_CARET, TLAplusElementTypes.OP_CARETCARET,
+            TLAplusElementTypes.OP_VBAR, TLAplusElementTypes.OP_VBARDASH, TLAplusElementTypes.OP_VBAREQ,
+            TLAplusElementTypes.OP_VBARVBAR, TLAplusElementTypes.OP_TILDEGT, TLAplusElementTypes.OP_APPROX,
+            TLAplusElementTypes.OP_SQSUPSETEQ, TLAplusElementTypes.OP_ASYMP, TLAplusElementTypes.OP_GTGT,
+            TLAplusElementTypes.OP_STAR, TLAplusElementTypes.OP_BIGCIRC, TLAplusElementTypes.OP_IN,
+            TLAplusElementTypes.OP_PREC, TLAplusElementTypes.OP_SUBSET, TLAplusElementTypes.OP_BULLET,
+            TLAplusElementTypes.OP_CAP, TLAplusElementTypes.OP_PRECEQ, TLAplusElementTypes.OP_SUBSETEQ,
+            TLAplusElementTypes.OP_PROPTO, TLAplusElementTypes.OP_SUCC, TLAplusElementTypes.OP_CDOT,
+            TLAplusElementTypes.OP_SIM, TLAplusElementTypes.OP_SUCCEQ, TLAplusElementTypes.OP_CIRC,
+            TLAplusElementTypes.OP_LTLT, TLAplusElementTypes.OP_SIMEQ, TLAplusElementTypes.OP_SUPSET,
+            TLAplusElementTypes.OP_CONG, TLAplusElementTypes.OP_SQCAP, TLAplusElementTypes.OP_SUPSETEQ,
+            TLAplusElementTypes.OP_CUP, TLAplusElementTypes.OP_SQCUP, TLAplusElementTypes.OP_DIV,
+            TLAplusElementTypes.OP_SQSUBSET, TLAplusElementTypes.OP_UPLUS, TLAplusElementTypes.OP_DOTEQ,
+            TLAplusElementTypes.OP_SQSUBSETEQ, TLAplusElementTypes.OP_WR, TLAplusElementTypes.OP_SQSUPSET);
+
+    /**
+     * Consume an infix-op token.
+     *
+     * Infix-op is tried after every operand in expressions (to check if the expression continues),
+     * so we check the token against the set at once, instead of generated choice which tries ~90 tokens one by one
+     * and records each of them as an expected token at the position.
+     */
+    public static boolean parseInfixOpToken(PsiBuilder b, int level) {
+        if (!INFIX_OP_TOKENS.contains(b.getTokenType())) {
+            addVariant(b, "<infix op>");
+            return false;
+        }
+        b.advanceLexer();
+        return true;
+    }
+
     public static boolean parseInfixOpLor(PsiBuilder b, int level) {
         return parseInfixOpLAndOr(OP_LOR2, b, level);
     }
@@ -39,6 +89,8 @@ public class TLAplusParserUtil extends GeneratedParserUtilBase {
      *
      * To address that, we remap "false" JUNCTION_BEGIN, JUNCTION_BREAK for \/ to WHITE_SPACE to be
      * ignored by parser if \/ is parsed as infix-op.
+     * JUNCTION_CONT, JUNCTION_BREAK which belong to the false junction are looked up from {@link JunctionTokenTable}
+     * rather than walking tokens forward, which is quadratic for long chains of infix /\ or \/.
      */
     private static boolean parseInfixOpLAndOr(
             IElementType opToken,
@@ -56,6 +108,8 @@ public class TLAplusParserUtil extends GeneratedParserUtilBase {
         boolean result = false;
         if (b.getTokenType() == JUNCTION_BEGIN) {
             falseJunctionBegin = true;
+            // the lexer emits the operator right after JUNCTION_BEGIN, so lazy remapping by
+            // JunctionTokenTable doesn't affect this look-ahead
             if (b.lookAhead(1) == opToken) {
                 result = true;
             }
@@ -66,27 +120,13 @@ public class TLAplusParserUtil extends GeneratedParserUtilBase {
 
         if (falseJunctionBegin) {
             if (result) {
+                JunctionTokenTable.getOrCreate(b).markFalseJunction(b.rawTokenIndex());
                 b.remapCurrentToken(TokenType.WHITE_SPACE);
             }
             b.advanceLexer();
         }
         b.advanceLexer();
         exit_section_(b, level, marker, result, false, null);
-
-        Marker pos = b.mark();
-        if (result && falseJunctionBegin) {
-            while (!b.eof()) {
-                b.advanceLexer();
-                if (b.getTokenType() == JUNCTION_CONT) {
-                    b.remapCurrentToken(TokenType.WHITE_SPACE);
-                }
-                if (b.getTokenType() == JUNCTION_BREAK) {
-                    b.remapCurrentToken(TokenType.WHITE_SPACE);
-                    break;
-                }
-            }
-        }
-        pos.rollbackTo();
         return result;
     }
 }
@@ -0,0 +1,131 @@
+package com.mayreh.intellij.plugin.tlaplus.psi;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.Language;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.TokenType;
+import com.intellij.psi.impl.source.tree.LazyParseableElement;
+import com.intellij.psi.impl.source.tree.TreeUtil;
+import com.intellij.psi.tree.IReparseableElementType;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.mayreh.intellij.plugin.tlaplus.TLAplusLanguage;
+import com.mayreh.intellij.plugin.tlaplus.TLAplusParserDefinition;
+import com.mayreh.intellij.plugin.tlaplus.lexer.TLAplusDefinitionLexer;
+import com.mayreh.intellij.plugin.tlaplus.parser.TLAplusParser;
+
+/**
+ * Element type of operator definition and function definition.
+ *
+ * On editing inside a module-level definition, only the definition is reparsed instead of the whole file.
+ * Since the extent of a definition is determined by junction indentations which depend on the surrounding text,
+ * the definition is reparsed alone only when it can be tokenized without its surroundings,
+ * i.e. the definition starts at column 0 (optionally after LOCAL) and the following token is also at column 0.
+ * Otherwise (or if the new text doesn't form a single valid definition), falls back to reparsing the enclosing node.
+ */
+public class TLAplusDefinitionElementType extends IReparseableElementType {
+    private static final Key<Integer> FIRST_LINE_COLUMN = Key.create("TLA.definitionFirstLineColumn");
+
+    public TLAplusDefinitionElementType(String debugName) {
+        super(debugName, TLAplusLanguage.INSTANCE);
+    }
+
+    @Override
+    public @Nullable ASTNode createNode(CharSequence text) {
+        return new LazyParseableElement(this, text);
+    }
+
+    @Override
+    protected ASTNode doParseContents(@NotNull ASTNode chameleon, @NotNull PsiElement psi) {
+        Integer column = chameleon.getUserData(FIRST_LINE_COLUMN);
+        PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(
+                psi.getProject(),
+                chameleon,
+                new TLAplusDefinitionLexer(column != null ? column : startColumn(chameleon)),
+                getLanguage(),
+                chameleon.getChars());
+        return new TLAplusParser().parse(this, builder).getFirstChildNode();
+    }
+
+    @Override
+    public boolean isParsable(@Nullable ASTNode parent,
+                              @NotNull CharSequence buffer,
+                              @NotNull Language fileLanguage,
+                              @NotNull Project project) {
+        // definitions in LET or PlusCal define block depend on the indentations of enclosing expressions
+        return parent != null && parent.getElementType() == TLAplusElementTypes.MODULE;
+    }
+
+    @Override
+    public boolean isValidReparse(@NotNull ASTNode oldNode, @NotNull ASTNode newNode) {
+        ASTNode firstLeaf = TreeUtil.findFirstLeaf(oldNode);
+        if (firstLeaf == null || firstLeaf.getElementType() == TLAplusElementTypes.JUNCTION_BREAK) {
+            // junction lists of the preceding unit are not closed before the definition
+            return false;
+        }
+        ASTNode unitStart = oldNode;
+        ASTNode prev = prevSignificantLeaf(oldNode);
+        if (prev != null && prev.getElementType() == TLAplusElementTypes.KEYWORD_LOCAL) {
+            unitStart = prev;
+        }
+        if (startColumn(unitStart) != 0) {
+            return false;
+        }
+        ASTNode next = nextSignificantLeaf(oldNode);
+        if (next != null && startColumn(next) != 0) {
+            return false;
+        }
+
+        newNode.putUserData(FIRST_LINE_COLUMN, startColumn(oldNode));
+        // forces parsing the new text
+        if (newNode.getFirstChildNode() == null) {
+            return false;
+        }
+        return !PsiTreeUtil.hasErrorElements(newNode.getPsi());
+    }
+
+    private static @Nullable ASTNode prevSignificantLeaf(ASTNode node) {
+        ASTNode leaf = TreeUtil.prevLeaf(node);
+        while (leaf != null && isInsignificant(leaf)) {
+            leaf = TreeUtil.prevLeaf(leaf);
+        }
+        return leaf;
+    }
+
+    private static @Nullable ASTNode nextSignificantLeaf(ASTNode node) {
+        ASTNode leaf = TreeUtil.nextLeaf(node);
+        while (leaf != null && isInsignificant(leaf)) {
+            leaf = TreeUtil.nextLeaf(leaf);
+        }
+        return leaf;
+    }
+
+    private static boolean isInsignificant(ASTNode leaf) {
+        return leaf.getTextLength() == 0
+               || TLAplusParserDefinition.COMMENT_TOKENS.contains(leaf.getElementType())
+               || leaf.getElementType() == TokenType.WHITE_SPACE;
+    }
+
+    /**
+     * Count the column where the node starts, by looking back the preceding leaves until newline.
+     */
+    private static int startColumn(ASTNode node) {
+        int column = 0;
+        for (ASTNode leaf = TreeUtil.prevLeaf(node); leaf != null; leaf = TreeUtil.prevLeaf(leaf)) {
+            CharSequence text = leaf.getChars();
+            int newline = StringUtil.lastIndexOf(text, '\n', 0, text.length());
+            if (newline >= 0) {
+                return column + text.length() - newline - 1;
+            }
+            column += text.length();
+        }
+        return column;
+    }
+}
@@ -0,0 +1,48 @@
+package com.mayreh.intellij.plugin.tlaplus.psi;
+
+import com.intellij.psi.tree.IElementType;
+import com.mayreh.intellij.plugin.tlaplus.psi.impl.TLAplusFuncNameImpl;
+import com.mayreh.intellij.plugin.tlaplus.psi.impl.TLAplusModuleHeaderImpl;
+import com.mayreh.intellij.plugin.tlaplus.psi.impl.TLAplusNonfixLhsNameImpl;
+import com.mayreh.intellij.plugin.tlaplus.psi.impl.TLAplusOpNameImpl;
+import com.mayreh.intellij.plugin.tlaplus.psi.impl.TLAplusVariableNameImpl;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusInstanceStubElementType;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusModuleStubElementType;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusNamedElementStubElementType;
+
+/**
+ * Creates element types which need special treatment, referred from tlaplus.bnf.
+ */
+public class TLAplusElementTypeFactory {
+    public static IElementType createTokenType(String debugName) {
+        if ("COMMENT_PLUS_CAL".equals(debugName)) {
+            return new TLAplusPlusCalCommentTokenType(debugName);
+        }
+        return new TLAplusTokenType(debugName);
+    }
+
+    public static IElementType createDefinitionType(String debugName) {
+        return new TLAplusDefinitionElementType(debugName);
+    }
+
+    public static IElementType createStubType(String debugName) {
+        switch (debugName) {
+            case "MODULE":
+                return new TLAplusModuleStubElementType(debugName);
+            case "INSTANCE":
+                return new TLAplusInstanceStubElementType(debugName);
+            case "MODULE_HEADER":
+                return new TLAplusNamedElementStubElementType(debugName, TLAplusModuleHeaderImpl::new);
+            case "VARIABLE_NAME":
+                return new TLAplusNamedElementStubElementType(debugName, TLAplusVariableNameImpl::new);
+            case "OP_NAME":
+                return new TLAplusNamedElementStubElementType(debugName, TLAplusOpNameImpl::new);
+            case "NONFIX_LHS_NAME":
+                return new TLAplusNamedElementStubElementType(debugName, TLAplusNonfixLhsNameImpl::new);
+            case "FUNC_NAME":
+                return new TLAplusNamedElementStubElementType(debugName, TLAplusFuncNameImpl::new);
+            default:
+                throw new IllegalArgumentException("Unknown stub element type: " + debugName);
+        }
+    }
+}
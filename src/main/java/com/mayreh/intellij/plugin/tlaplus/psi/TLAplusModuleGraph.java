@@ -0,0 +1,222 @@
+package com.mayreh.intellij.plugin.tlaplus.psi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.psi.PsiComment;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.PsiWhiteSpace;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider.Result;
+import com.intellij.psi.util.CachedValuesManager;
+import com.mayreh.intellij.plugin.tlaplus.TLAplusFile;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * Graph of modules connected by EXTENDS and INSTANCE.
+ *
+ * Edges and transitive closures are memoized per module, and are kept until the structure of some module
+ * (i.e. module header, EXTENDS or INSTANCE) or the set of module files changes.
+ * Edits inside definitions don't invalidate the graph.
+ *
+ * Closures are computed by visiting each module at most once,
+ * so diamond-shaped hierarchies are walked only once and cyclic EXTENDS doesn't cause infinite recursion.
+ */
+@Service
+public final class TLAplusModuleGraph implements Disposable {
+    private static final Key<CachedValue<Edges>> EDGES_KEY = Key.create("tlaplus.module.graph.edges");
+    private static final Key<CachedValue<List<TLAplusModule>>> PUBLIC_CLOSURE_KEY =
+            Key.create("tlaplus.module.graph.public.closure");
+
+    private final SimpleModificationTracker structureTracker = new SimpleModificationTracker();
+
+    @Value
+    @Accessors(fluent = true)
+    private static class Edges {
+        List<TLAplusModule> extendedModules;
+        // modules instantiated by INSTANCE without LOCAL
+        List<TLAplusModule> publicInstantiatedModules;
+
+        boolean isValid() {
+            return extendedModules.stream().allMatch(PsiElement::isValid) &&
+                   publicInstantiatedModules.stream().allMatch(PsiElement::isValid);
+        }
+    }
+
+    public TLAplusModuleGraph(@NotNull Project project) {
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+            @Override
+            public void childAdded(@NotNull PsiTreeChangeEvent event) {
+                onChange(event);
+            }
+
+            @Override
+            public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+                onChange(event);
+            }
+
+            @Override
+            public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+                onChange(event);
+            }
+
+            @Override
+            public void childMoved(@NotNull PsiTreeChangeEvent event) {
+                onChange(event);
+            }
+
+            @Override
+            public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+                onChange(event);
+            }
+
+            @Override
+            public void propertyChanged(@NotNull PsiTreeChangeEvent event) {
+                onChange(event);
+            }
+        }, this);
+    }
+
+    public static TLAplusModuleGraph getInstance(@NotNull Project project) {
+        return project.getService(TLAplusModuleGraph.class);
+    }
+
+    /**
+     * Tracker which is incremented when the graph may change.
+     */
+    public @NotNull ModificationTracker structureTracker() {
+        return structureTracker;
+    }
+
+    /**
+     * Returns the modules directly imported by EXTENDS.
+     */
+    public @NotNull List<TLAplusModule> extendedModules(@NotNull TLAplusModule module) {
+        return edges(module).extendedModules();
+    }
+
+    /**
+     * Returns the modules whose public definitions are also public in the module, i.e.
+     * the module itself and the modules reachable through EXTENDS or INSTANCE without LOCAL.
+     * Modules are ordered in depth-first order, starting from the module itself.
+     */
+    public @NotNull List<TLAplusModule> publicClosure(@NotNull TLAplusModule module) {
+        List<TLAplusModule> closure = CachedValuesManager.getCachedValue(
+                module, PUBLIC_CLOSURE_KEY,
+                () -> Result.create(computePublicClosure(module), structureTracker));
+        if (closure.stream().allMatch(PsiElement::isValid)) {
+            return closure;
+        }
+        // some module file was reloaded without structural change (e.g. standard modules collected by GC)
+        return computePublicClosure(module);
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    private @NotNull Edges edges(@NotNull TLAplusModule module) {
+        Edges edges = CachedValuesManager.getCachedValue(
+                module, EDGES_KEY,
+                () -> Result.create(computeEdges(module), structureTracker));
+        return edges.isValid() ? edges : computeEdges(module);
+    }
+
+    private @NotNull List<TLAplusModule> computePublicClosure(@NotNull TLAplusModule module) {
+        Set<TLAplusModule> visited = new LinkedHashSet<>();
+        visit(module, visited);
+        return Collections.unmodifiableList(new ArrayList<>(visited));
+    }
+
+    private void visit(@NotNull TLAplusModule module, @NotNull Set<TLAplusModule> visited) {
+        if (!visited.add(module)) {
+            return;
+        }
+        Edges edges = edges(module);
+        for (TLAplusModule extended : edges.extendedModules()) {
+            visit(extended, visited);
+        }
+        for (TLAplusModule instantiated : edges.publicInstantiatedModules()) {
+            visit(instantiated, visited);
+        }
+    }
+
+    private static @NotNull Edges computeEdges(@NotNull TLAplusModule module) {
+        return new Edges(
+                module.modulesFromExtends().collect(Collectors.toUnmodifiableList()),
+                module.modulesFromInstantiation(i -> !i.isLocal()).collect(Collectors.toUnmodifiableList()));
+    }
+
+    private void onChange(@NotNull PsiTreeChangeEvent event) {
+        if (isStructuralChange(event)) {
+            structureTracker.incModificationCount();
+        }
+    }
+
+    private static boolean isStructuralChange(@NotNull PsiTreeChangeEvent event) {
+        PsiElement parent = event.getParent();
+        if (parent == null || parent instanceof PsiDirectory) {
+            // files are added, removed, renamed or moved
+            return true;
+        }
+        PsiFile file = parent.getContainingFile();
+        if (!(file instanceof TLAplusFile)) {
+            return false;
+        }
+        if (parent instanceof PsiFile) {
+            return true;
+        }
+        if (parent instanceof TLAplusModule) {
+            return isStructuralChild(event.getChild()) ||
+                   isStructuralChild(event.getOldChild()) ||
+                   isStructuralChild(event.getNewChild()) ||
+                   // e.g. children are changed in bulk
+                   (event.getChild() == null && event.getOldChild() == null && event.getNewChild() == null);
+        }
+        for (PsiElement element = parent; element != null && !(element instanceof PsiFile);
+             element = element.getParent()) {
+            if (element instanceof TLAplusModuleHeader) {
+                return true;
+            }
+            if (element.getParent() instanceof TLAplusModule) {
+                return element instanceof TLAplusInstance || element instanceof TLAplusModuleRef;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the module-level element may affect the graph.
+     * Only definitions, whitespaces and comments are known to be irrelevant.
+     */
+    private static boolean isStructuralChild(@Nullable PsiElement child) {
+        if (child == null || child instanceof PsiWhiteSpace || child instanceof PsiComment) {
+            return false;
+        }
+        return !(child instanceof TLAplusOpDefinition ||
+                 child instanceof TLAplusFuncDefinition ||
+                 child instanceof TLAplusModuleDefinition ||
+                 child instanceof TLAplusVariableDecl ||
+                 child instanceof TLAplusConstantDecl);
+    }
+}
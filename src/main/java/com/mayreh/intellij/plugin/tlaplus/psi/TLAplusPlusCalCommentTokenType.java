@@ -0,0 +1,103 @@
+package com.mayreh.intellij.plugin.tlaplus.psi;
+
+import java.io.IOException;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.lang.ASTFactory;
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.impl.source.tree.TreeUtil;
+import com.intellij.psi.tree.IReparseableLeafElementType;
+import com.intellij.util.text.CharArrayUtil;
+import com.intellij.util.text.MergingCharSequence;
+import com.mayreh.intellij.plugin.tlaplus.lexer._TLAplusPlusCalCommentLexer;
+
+/**
+ * Token type of PlusCal algorithm in a comment.
+ *
+ * On editing inside the algorithm, only the comment token is replaced (then PlusCal injection is updated)
+ * instead of reparsing the whole file, as long as the new text is still lexed as the same algorithm
+ * in the same block comment.
+ */
+public class TLAplusPlusCalCommentTokenType extends TLAplusTokenType implements IReparseableLeafElementType<ASTNode> {
+    public TLAplusPlusCalCommentTokenType(String debugName) {
+        super(debugName);
+    }
+
+    @Override
+    public @Nullable ASTNode reparseLeaf(@NotNull ASTNode leaf, @NotNull CharSequence newLeafText) {
+        ASTNode prev = TreeUtil.prevLeaf(leaf);
+        ASTNode next = TreeUtil.nextLeaf(leaf);
+        if (prev == null || prev.getElementType() != TLAplusElementTypes.COMMENT) {
+            return null;
+        }
+        CharSequence prefix = prev.getChars();
+        CharSequence suffix = next != null && next.getElementType() == TLAplusElementTypes.COMMENT
+                              ? next.getChars() : "";
+
+        // "----" may start a module when the algorithm is written before the module
+        if (CharArrayUtil.indexOf(newLeafText, "----", 0) >= 0) {
+            return null;
+        }
+        if (!isSingleAlgorithm(newLeafText, suffix)) {
+            return null;
+        }
+        if (!CharArrayUtil.regionMatches(prefix, 0, "(*")) {
+            return null;
+        }
+        int oldEnd = blockCommentEnd(new MergingCharSequence(prefix, new MergingCharSequence(leaf.getChars(), suffix)));
+        int newEnd = blockCommentEnd(new MergingCharSequence(prefix, new MergingCharSequence(newLeafText, suffix)));
+        int oldLeafEnd = prefix.length() + leaf.getTextLength();
+        int newLeafEnd = prefix.length() + newLeafText.length();
+        if (oldEnd < 0 || newEnd < 0) {
+            if (oldEnd != newEnd) {
+                return null;
+            }
+        } else if (oldEnd < oldLeafEnd || newEnd < newLeafEnd || oldEnd - oldLeafEnd != newEnd - newLeafEnd) {
+            // the algorithm must be inside the block comment which ends at the same place in the suffix
+            return null;
+        }
+        return ASTFactory.leaf(this, newLeafText);
+    }
+
+    /**
+     * Returns true if the text is lexed as single PlusCal algorithm, when followed by the suffix in the comment.
+     */
+    private static boolean isSingleAlgorithm(CharSequence text, CharSequence suffix) {
+        CharSequence buffer = new MergingCharSequence(text, suffix);
+        _TLAplusPlusCalCommentLexer lexer = new _TLAplusPlusCalCommentLexer(null);
+        lexer.reset(buffer, 0, buffer.length(), _TLAplusPlusCalCommentLexer.YYINITIAL);
+        try {
+            return lexer.advance() == TLAplusElementTypes.COMMENT_PLUS_CAL
+                   && lexer.getTokenStart() == 0
+                   && lexer.getTokenEnd() == text.length();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the offset right after "*)" which closes the block comment at the beginning of the text,
+     * in the same way as the TLA+ lexer counts nested block comments.
+     * Returns -1 if the block comment is not closed.
+     */
+    private static int blockCommentEnd(CharSequence text) {
+        int level = 0;
+        for (int i = 0; i + 1 < text.length(); i++) {
+            char c = text.charAt(i);
+            char next = text.charAt(i + 1);
+            if (c == '(' && next == '*') {
+                level++;
+                i++;
+            } else if (c == '*' && next == ')') {
+                level--;
+                i++;
+                if (level == 0) {
+                    return i + 1;
+                }
+            }
+        }
+        return -1;
+    }
+}
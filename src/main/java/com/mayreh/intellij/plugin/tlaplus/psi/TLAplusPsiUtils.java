@@ -1,20 +1,121 @@
 package com.mayreh.intellij.plugin.tlaplus.psi;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import com.intellij.lang.ASTNode;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.impl.source.StubBasedPsiElementBase;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.util.PsiUtilCore;
 import com.mayreh.intellij.plugin.tlaplus.psi.ext.TLAplusElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusNamedElementStub;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusNamedElementStub.Kind;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusNamedElementStubElementType;
 
 public class TLAplusPsiUtils {
-    public static boolean isForwardReference(@NotNull TLAplusElement placement,
-                                             @NotNull TLAplusNamedElement name) {
-        return placement.getTextOffset() < name.getTextOffset();
-    }
-
     public static boolean isLocal(TLAplusElement maybeLocalDefinition) {
         PsiElement sibling = PsiTreeUtil.skipWhitespacesAndCommentsBackward(maybeLocalDefinition);
         return sibling != null && PsiUtilCore.getElementType(sibling) == TLAplusElementTypes.KEYWORD_LOCAL;
     }
+
+    /**
+     * Returns the module instantiated by the module definition of the name (e.g. X for `Inst == INSTANCE X`),
+     * or null if the name isn't of a module definition.
+     */
+    public static @Nullable TLAplusModule instantiatedModule(@NotNull TLAplusNamedElement name) {
+        if (name.getParent() == null || !(name.getParent().getParent() instanceof TLAplusModuleDefinition)) {
+            return null;
+        }
+        TLAplusModuleDefinition moduleDef = (TLAplusModuleDefinition) name.getParent().getParent();
+        TLAplusModule module = moduleDef.currentModule();
+        if (module == null || moduleDef.getInstance().getModuleRef() == null) {
+            return null;
+        }
+        return module.findAvailableModule(moduleDef.getInstance().getModuleRef().getReferenceName());
+    }
+
+    /**
+     * Returns the number of arguments that the definition of the name takes.
+     * e.g. 2 for `F(x, y) == ...`, 1 for `CONSTANT C(_)`, and 0 for variables or bound names.
+     * For functions, returns the number of arguments in brackets. (e.g. f[x, y \in S] takes 2 arguments)
+     */
+    public static int arity(@NotNull TLAplusNamedElement name) {
+        if (name instanceof StubBasedPsiElementBase) {
+            StubElement<?> stub = ((StubBasedPsiElementBase<?>) name).getGreenStub();
+            if (stub instanceof TLAplusNamedElementStub) {
+                return ((TLAplusNamedElementStub) stub).arity();
+            }
+        }
+        return arity(name.getNode());
+    }
+
+    /**
+     * Returns the kind of the definition of the name,
+     * or null if the name is defined locally (e.g. bound names or definitions in LET).
+     */
+    public static @Nullable Kind kind(@NotNull TLAplusNamedElement name) {
+        if (name instanceof StubBasedPsiElementBase) {
+            StubElement<?> stub = ((StubBasedPsiElementBase<?>) name).getGreenStub();
+            if (stub instanceof TLAplusNamedElementStub) {
+                return ((TLAplusNamedElementStub) stub).kind();
+            }
+        }
+        return TLAplusNamedElementStubElementType.kind(name.getNode());
+    }
+
+    /**
+     * Same as {@link #arity(TLAplusNamedElement)}, but computed from the AST node of the name.
+     */
+    public static int arity(@NotNull ASTNode name) {
+        ASTNode parent = name.getTreeParent();
+        if (parent == null) {
+            return 0;
+        }
+        IElementType type = name.getElementType();
+        if (type == TLAplusElementTypes.OP_NAME) {
+            // constant declaration or operator argument, e.g. C(_, _)
+            return countChildren(parent, TLAplusElementTypes.UNDER);
+        }
+        if (type == TLAplusElementTypes.NONFIX_LHS_NAME) {
+            return countChildren(parent, TLAplusElementTypes.OP_DECL);
+        }
+        if (type == TLAplusElementTypes.FUNC_NAME) {
+            return funcArity(parent);
+        }
+        return 0;
+    }
+
+    private static int countChildren(@NotNull ASTNode node, @NotNull IElementType type) {
+        int count = 0;
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            if (child.getElementType() == type) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Count the arguments of the function definition.
+     * e.g. f[x, y \in S, z \in T] takes 3 arguments, while f[<<x, y>> \in S] takes 1 (tuple) argument.
+     */
+    private static int funcArity(@NotNull ASTNode definition) {
+        int arity = 0;
+        boolean inTuple = false;
+        for (ASTNode child = definition.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            IElementType type = child.getElementType();
+            if (type == TLAplusElementTypes.LTUPLE) {
+                inTuple = true;
+                arity++;
+            } else if (type == TLAplusElementTypes.RTUPLE) {
+                inTuple = false;
+            } else if (type == TLAplusElementTypes.BOUND_NAME && !inTuple) {
+                arity++;
+            }
+        }
+        return arity;
+    }
 }
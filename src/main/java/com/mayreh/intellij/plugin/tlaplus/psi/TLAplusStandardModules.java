@@ -0,0 +1,105 @@
+package com.mayreh.intellij.plugin.tlaplus.psi;
+
+import static com.mayreh.intellij.plugin.util.Optionalx.asInstanceOf;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.util.ResourceUtil;
+import com.mayreh.intellij.plugin.tlaplus.TLAplusFile;
+
+/**
+ * Standard modules bundled in tla2tools.jar.
+ *
+ * The module files are looked up from the jar only once per application,
+ * since standard modules never change.
+ */
+@Service
+public final class TLAplusStandardModules {
+    private static final String STANDARD_MODULES_PATH = "tla2sany/StandardModules";
+    // A module which should exist in any version of tla2tools.jar, to locate the standard modules directory
+    private static final String ANCHOR_MODULE_FILE = "Naturals.tla";
+
+    private volatile Map<String, VirtualFile> moduleFiles;
+
+    public static TLAplusStandardModules getInstance() {
+        return ApplicationManager.getApplication().getService(TLAplusStandardModules.class);
+    }
+
+    /**
+     * Names of the standard modules, in alphabetical order.
+     */
+    public @NotNull Set<String> moduleNames() {
+        return moduleFiles().keySet();
+    }
+
+    public boolean isStandardModule(@NotNull TLAplusModule module) {
+        VirtualFile file = module.getContainingFile().getVirtualFile();
+        return file != null && file.equals(moduleFiles().get(file.getNameWithoutExtension()));
+    }
+
+    public @Nullable TLAplusModule findModule(@NotNull Project project, @NotNull String moduleName) {
+        VirtualFile file = moduleFiles().get(moduleName);
+        if (file == null) {
+            return null;
+        }
+        return asInstanceOf(PsiManager.getInstance(project).findFile(file), TLAplusFile.class)
+                .flatMap(f -> Optional.ofNullable(f.module()))
+                .orElse(null);
+    }
+
+    public @NotNull Stream<TLAplusModule> modules(@NotNull Project project) {
+        return modules(project, name -> true);
+    }
+
+    /**
+     * Returns the standard modules whose name matches the filter.
+     */
+    public @NotNull Stream<TLAplusModule> modules(@NotNull Project project, @NotNull Predicate<String> nameFilter) {
+        return moduleNames().stream()
+                            .filter(nameFilter)
+                            .flatMap(name -> Optional.ofNullable(findModule(project, name)).stream());
+    }
+
+    private @NotNull Map<String, VirtualFile> moduleFiles() {
+        Map<String, VirtualFile> files = moduleFiles;
+        if (files == null) {
+            files = loadModuleFiles();
+            moduleFiles = files;
+        }
+        return files;
+    }
+
+    private static @NotNull Map<String, VirtualFile> loadModuleFiles() {
+        URL url = ResourceUtil.getResource(
+                TLAplusStandardModules.class.getClassLoader(), STANDARD_MODULES_PATH, ANCHOR_MODULE_FILE);
+        VirtualFile anchor = url != null ? VfsUtil.findFileByURL(url) : null;
+        if (anchor == null || anchor.getParent() == null) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, VirtualFile> files = new TreeMap<>();
+        for (VirtualFile file : anchor.getParent().getChildren()) {
+            // modules starting with underscore (e.g. _TLCTrace) are for TLC internal use
+            if ("tla".equals(file.getExtension()) && !file.getName().startsWith("_")) {
+                files.put(file.getNameWithoutExtension(), file);
+            }
+        }
+        return Collections.unmodifiableMap(files);
+    }
+}
@@ -1,15 +1,12 @@
 package com.mayreh.intellij.plugin.tlaplus.psi.ext;
 
-import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiUtils.isForwardReference;
-
-import java.util.function.Function;
-import java.util.stream.Stream;
-
 import org.jetbrains.annotations.NotNull;
 
 import com.intellij.lang.ASTNode;
+import com.intellij.psi.util.CachedValueProvider.Result;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusChooseExpr;
-import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
 
 public abstract class TLAplusChooseExprImplMixin extends TLAplusElementImpl implements TLAplusChooseExpr {
     protected TLAplusChooseExprImplMixin(@NotNull ASTNode node) {
@@ -17,11 +14,9 @@ public abstract class TLAplusChooseExprImplMixin extends TLAplusElementImpl impl
     }
 
     @Override
-    public @NotNull Stream<TLAplusNamedElement> localDefinitions(
-            @NotNull TLAplusElement placement) {
-        return getBoundNameList()
-                .stream()
-                .filter(e -> !isForwardReference(placement, e))
-                .map(Function.identity());
+    public @NotNull TLAplusNameTable localNameTable() {
+        return CachedValuesManager.getCachedValue(this, () -> Result.create(
+                TLAplusNameTable.builder().addAll(getBoundNameList()).build(),
+                PsiModificationTracker.MODIFICATION_COUNT));
     }
 }
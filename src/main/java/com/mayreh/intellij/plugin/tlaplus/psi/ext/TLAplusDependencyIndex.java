@@ -0,0 +1,191 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.ext;
+
+import static com.mayreh.intellij.plugin.util.Optionalx.asInstanceOf;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValueProvider.Result;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.mayreh.intellij.plugin.tlaplus.TLAplusFile;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusFuncDefinition;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModule;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModuleDefinition;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusOpDefinition;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiUtils;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusNamedElementStub.Kind;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusReferencedNameIndex;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * Dependencies between module-level definitions, i.e. which definitions are referred from the body of
+ * each definition, and conversely which definitions refer to each definition.
+ *
+ * Dependencies are built per module from the bindings of {@link TLAplusModuleResolver}, which are shared with
+ * highlighting, and cached until PSI is modified.
+ * Users of a definition are collected only from the modules in the files which contain references of its name,
+ * which are looked up from {@link TLAplusReferencedNameIndex}, so only those modules are resolved.
+ * Standard modules are not indexed, so users in other standard modules are not collected.
+ */
+public final class TLAplusDependencyIndex {
+    private TLAplusDependencyIndex() {
+    }
+
+    @Value
+    @Accessors(fluent = true)
+    private static class Dependencies {
+        // definition in the module -> definitions referred from its body
+        Map<TLAplusNamedElement, Set<TLAplusNamedElement>> dependencies;
+        // definition (possibly in other modules) -> definitions in the module referring to it
+        Map<TLAplusNamedElement, Set<TLAplusNamedElement>> users;
+    }
+
+    /**
+     * Returns the definitions referred from the body of the definition.
+     */
+    public static @NotNull List<TLAplusNamedElement> directDependencies(@NotNull TLAplusNamedElement definition) {
+        TLAplusModule module = definition.currentModule();
+        if (module == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(dependencies(module).dependencies()
+                                                   .getOrDefault(definition, Collections.emptySet()));
+    }
+
+    /**
+     * Returns the definitions whose body refers to the definition.
+     */
+    public static @NotNull List<TLAplusNamedElement> directUsers(@NotNull TLAplusNamedElement definition) {
+        TLAplusModule module = definition.currentModule();
+        if (module == null) {
+            return Collections.emptyList();
+        }
+        return candidateModules(definition, module)
+                .flatMap(m -> dependencies(m).users().getOrDefault(definition, Collections.emptySet()).stream())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the definitions which refer to the definition directly or through other definitions,
+     * in breadth-first order.
+     * The definition itself is included only if it's (mutually) recursive.
+     */
+    public static @NotNull Set<TLAplusNamedElement> transitiveUsers(@NotNull TLAplusNamedElement definition) {
+        Set<TLAplusNamedElement> users = new LinkedHashSet<>();
+        Deque<TLAplusNamedElement> queue = new ArrayDeque<>();
+        queue.add(definition);
+        while (!queue.isEmpty()) {
+            for (TLAplusNamedElement user : directUsers(queue.poll())) {
+                if (users.add(user)) {
+                    queue.add(user);
+                }
+            }
+        }
+        return users;
+    }
+
+    /**
+     * Returns true if the name is of a module-level definition or declaration which can have dependencies.
+     */
+    public static boolean isDefinition(@NotNull TLAplusNamedElement name) {
+        Kind kind = TLAplusPsiUtils.kind(name);
+        return kind != null && kind != Kind.MODULE;
+    }
+
+    private static @NotNull Dependencies dependencies(@NotNull TLAplusModule module) {
+        return CachedValuesManager.getCachedValue(module, () -> Result.create(
+                computeDependencies(module), PsiModificationTracker.MODIFICATION_COUNT));
+    }
+
+    private static @NotNull Dependencies computeDependencies(@NotNull TLAplusModule module) {
+        Map<TLAplusNamedElement, Set<TLAplusNamedElement>> dependencies = new HashMap<>();
+        Map<TLAplusNamedElement, Set<TLAplusNamedElement>> users = new HashMap<>();
+        TLAplusModuleResolver.bindings(module).forEach((reference, results) -> {
+            TLAplusNamedElement user = enclosingDefinition(reference);
+            if (user == null) {
+                return;
+            }
+            for (ResolveResult result : results) {
+                if (!(result.getElement() instanceof TLAplusNamedElement)) {
+                    continue;
+                }
+                TLAplusNamedElement target = (TLAplusNamedElement) result.getElement();
+                if (isDefinition(target)) {
+                    dependencies.computeIfAbsent(user, k -> new LinkedHashSet<>()).add(target);
+                    users.computeIfAbsent(target, k -> new LinkedHashSet<>()).add(user);
+                }
+            }
+        });
+        return new Dependencies(dependencies, users);
+    }
+
+    /**
+     * Returns the name of the module-level definition which contains the element,
+     * or null if the element isn't in a named definition (e.g. THEOREM or ASSUME).
+     */
+    private static @Nullable TLAplusNamedElement enclosingDefinition(@NotNull PsiElement element) {
+        for (PsiElement e = element; e != null && !(e instanceof PsiFile); e = e.getParent()) {
+            if (!(e.getParent() instanceof TLAplusModule)) {
+                continue;
+            }
+            if (e instanceof TLAplusOpDefinition) {
+                TLAplusOpDefinition definition = (TLAplusOpDefinition) e;
+                return definition.getNonfixLhs() != null ? definition.getNonfixLhs().getNonfixLhsName() : null;
+            }
+            if (e instanceof TLAplusFuncDefinition) {
+                return ((TLAplusFuncDefinition) e).getFuncName();
+            }
+            if (e instanceof TLAplusModuleDefinition) {
+                return ((TLAplusModuleDefinition) e).getNonfixLhs().getNonfixLhsName();
+            }
+            return null;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the modules which may refer to the definition, i.e. the module of the definition and
+     * the modules in the files which contain references of its name.
+     */
+    private static @NotNull Stream<TLAplusModule> candidateModules(@NotNull TLAplusNamedElement definition,
+                                                                   @NotNull TLAplusModule module) {
+        String name = definition.getName();
+        if (name == null) {
+            return Stream.of(module);
+        }
+        Project project = module.getProject();
+        PsiManager psiManager = PsiManager.getInstance(project);
+        Stream<TLAplusModule> users =
+                TLAplusReferencedNameIndex.findFiles(name, GlobalSearchScope.allScope(project))
+                                          .stream()
+                                          .flatMap(file -> asInstanceOf(psiManager.findFile(file), TLAplusFile.class)
+                                                  .stream())
+                                          .map(TLAplusFile::module)
+                                          .filter(Objects::nonNull);
+        return Stream.concat(Stream.of(module), users).distinct();
+    }
+}
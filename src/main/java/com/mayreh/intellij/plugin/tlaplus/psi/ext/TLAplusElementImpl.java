@@ -9,6 +9,7 @@ import com.intellij.psi.PsiElement;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusChooseExpr;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusCodeFragment;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusFuncDefinition;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusFunctionsExpr;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusLetExpr;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModule;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusOpDefinition;
@@ -24,7 +25,11 @@ public abstract class TLAplusElementImpl extends ASTWrapperPsiElement implements
     @Override
     @Nullable
     public PsiElement getContext() {
-        // In TLA+, there are 9 types of scopes (contexts).
+        return nameContext(this);
+    }
+
+    static @Nullable PsiElement nameContext(@NotNull PsiElement child) {
+        // In TLA+, there are 10 types of scopes (contexts).
         // 1. Module (e.g. variable_decl, constant_decl,...)
         // 2. Code fragment
         // 3. Operator definition
@@ -34,9 +39,10 @@ public abstract class TLAplusElementImpl extends ASTWrapperPsiElement implements
         // 7. LET expression
         // 8. SET comprehension (e.g. { x : x \in some_set /\ x /= 1 })
         // 9. map-style SET comprehension (e.g. { x + 1 : x \in some_set })
+        // 10. Function constructor (e.g. [x \in some_set |-> x + 1])
         // We define "context" of a PsiElement as its nearest enclosing parent of above types.
 
-        PsiElement element = getParent();
+        PsiElement element = child.getParent();
         while (element != null) {
             if (element instanceof TLAplusModule ||
                 element instanceof TLAplusCodeFragment ||
@@ -46,7 +52,8 @@ public abstract class TLAplusElementImpl extends ASTWrapperPsiElement implements
                 element instanceof TLAplusChooseExpr ||
                 element instanceof TLAplusLetExpr ||
                 element instanceof TLAplusSetComprehension ||
-                element instanceof TLAplusSetComprehensionMap) {
+                element instanceof TLAplusSetComprehensionMap ||
+                element instanceof TLAplusFunctionsExpr) {
                 return element;
             }
 
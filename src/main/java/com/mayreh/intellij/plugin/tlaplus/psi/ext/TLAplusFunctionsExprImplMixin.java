@@ -0,0 +1,23 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.ext;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.util.CachedValueProvider.Result;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusFunctionsExpr;
+
+public abstract class TLAplusFunctionsExprImplMixin extends TLAplusElementImpl implements TLAplusFunctionsExpr {
+    protected TLAplusFunctionsExprImplMixin(@NotNull ASTNode node) {
+        super(node);
+    }
+
+    @Override
+    public @NotNull TLAplusNameTable localNameTable() {
+        // function sets (e.g. [S -> T]) have no bound names, so the table is empty for them
+        return CachedValuesManager.getCachedValue(this, () -> Result.create(
+                TLAplusNameTable.builder().addAll(getBoundNameList()).build(),
+                PsiModificationTracker.MODIFICATION_COUNT));
+    }
+}
@@ -0,0 +1,44 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.ext;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.tree.IElementType;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusInstance;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiUtils;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusInstanceStub;
+
+public abstract class TLAplusInstanceImplMixin
+        extends TLAplusStubbedElementImpl<TLAplusInstanceStub> implements TLAplusInstance {
+    protected TLAplusInstanceImplMixin(@NotNull ASTNode node) {
+        super(node);
+    }
+
+    protected TLAplusInstanceImplMixin(@NotNull TLAplusInstanceStub stub, @NotNull IStubElementType<?, ?> nodeType) {
+        super(stub, nodeType);
+    }
+
+    protected TLAplusInstanceImplMixin(TLAplusInstanceStub stub, IElementType nodeType, ASTNode node) {
+        super(stub, nodeType, node);
+    }
+
+    @Override
+    public @Nullable String instantiatedModuleName() {
+        TLAplusInstanceStub stub = getGreenStub();
+        if (stub != null) {
+            return stub.moduleName();
+        }
+        return getModuleRef() != null ? getModuleRef().getReferenceName() : null;
+    }
+
+    @Override
+    public boolean isLocal() {
+        TLAplusInstanceStub stub = getGreenStub();
+        if (stub != null) {
+            return stub.isLocal();
+        }
+        return TLAplusPsiUtils.isLocal(this);
+    }
+}
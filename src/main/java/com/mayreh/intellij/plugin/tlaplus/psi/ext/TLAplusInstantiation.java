@@ -0,0 +1,18 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.ext;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Interface for INSTANCE declaration.
+ */
+public interface TLAplusInstantiation extends TLAplusElement {
+    /**
+     * Name of the instantiated module.
+     */
+    @Nullable String instantiatedModuleName();
+
+    /**
+     * Returns true if the instance is declared with LOCAL.
+     */
+    boolean isLocal();
+}
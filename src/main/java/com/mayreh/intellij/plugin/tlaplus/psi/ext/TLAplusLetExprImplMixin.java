@@ -1,16 +1,15 @@
 package com.mayreh.intellij.plugin.tlaplus.psi.ext;
 
-import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiUtils.isForwardReference;
-
-import java.util.function.Function;
-import java.util.stream.Stream;
-
 import org.jetbrains.annotations.NotNull;
 
 import com.intellij.lang.ASTNode;
+import com.intellij.psi.util.CachedValueProvider.Result;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusFuncDefinition;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusLetExpr;
-import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModuleDefinition;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusOpDefinition;
 
 public abstract class TLAplusLetExprImplMixin extends TLAplusElementImpl implements TLAplusLetExpr {
     protected TLAplusLetExprImplMixin(@NotNull ASTNode node) {
@@ -18,35 +17,21 @@ public abstract class TLAplusLetExprImplMixin extends TLAplusElementImpl impleme
     }
 
     @Override
-    public @NotNull Stream<TLAplusNamedElement> localDefinitions(
-            @NotNull TLAplusElement placement) {
-        Stream.Builder<Stream<TLAplusNamedElement>> streams = Stream.builder();
-
-        streams.add(
-                getOpDefinitionList()
-                        .stream()
-                        .flatMap(def -> {
-                            if (def.getNonfixLhs() == null) {
-                                return Stream.empty();
-                            }
-                            if (isForwardReference(placement, def.getNonfixLhs().getNonfixLhsName())) {
-                                return Stream.empty();
-                            }
-                            return Stream.of(def.getNonfixLhs().getNonfixLhsName());
-                        }));
-
-        streams.add(getFuncDefinitionList()
-                            .stream()
-                            .map(TLAplusFuncDefinition::getFuncName)
-                            .filter(e -> !isForwardReference(placement, e))
-                            .map(Function.identity()));
-
-        streams.add(getModuleDefinitionList()
-                            .stream()
-                            .map(e -> e.getNonfixLhs().getNonfixLhsName())
-                            .filter(name -> !isForwardReference(placement, name))
-                            .map(Function.identity()));
-
-        return streams.build().flatMap(Function.identity());
+    public @NotNull TLAplusNameTable localNameTable() {
+        return CachedValuesManager.getCachedValue(this, () -> {
+            TLAplusNameTable.Builder builder = TLAplusNameTable.builder();
+            for (TLAplusOpDefinition def : getOpDefinitionList()) {
+                if (def.getNonfixLhs() != null) {
+                    builder.add(def.getNonfixLhs().getNonfixLhsName());
+                }
+            }
+            for (TLAplusFuncDefinition def : getFuncDefinitionList()) {
+                builder.add(def.getFuncName());
+            }
+            for (TLAplusModuleDefinition def : getModuleDefinitionList()) {
+                builder.add(def.getNonfixLhs().getNonfixLhsName());
+            }
+            return Result.create(builder.build(), PsiModificationTracker.MODIFICATION_COUNT);
+        });
     }
 }
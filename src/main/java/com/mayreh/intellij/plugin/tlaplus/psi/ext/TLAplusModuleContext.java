@@ -4,21 +4,65 @@ import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusInstance;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModule;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
 
 public interface TLAplusModuleContext extends TLAplusNameContext {
+    /**
+     * Returns the table of public definitions.
+     * Implementations should cache the table until PSI is modified.
+     */
+    @NotNull TLAplusNameTable publicNameTable();
+
     /**
      * Returns the stream of public definitions.
      */
-    @NotNull Stream<TLAplusNamedElement> publicDefinitions();
+    default @NotNull Stream<TLAplusNamedElement> publicDefinitions() {
+        return publicNameTable().definitions();
+    }
+
+    /**
+     * Returns the stream of public definitions of the name.
+     */
+    default @NotNull Stream<TLAplusNamedElement> publicDefinitions(@NotNull String name) {
+        return publicNameTable().definitions(name);
+    }
+
+    /**
+     * Returns the stream of definitions in this module itself, i.e. not imported by EXTENDS or INSTANCE.
+     * LOCAL definitions are included only if includeLocal is true.
+     */
+    @NotNull Stream<TLAplusNamedElement> ownDefinitions(boolean includeLocal);
 
     /**
      * Returns the stream of modules from search path (i.e. same directory or standard modules)
      */
-    @NotNull Stream<TLAplusModule> availableModules();
+    default @NotNull Stream<TLAplusModule> availableModules() {
+        return availableModules(name -> true);
+    }
+
+    /**
+     * Returns the stream of modules from search path whose name matches the filter.
+     * Names are tested before loading PSI of the modules.
+     */
+    @NotNull Stream<TLAplusModule> availableModules(@NotNull Predicate<String> nameFilter);
+
+    /**
+     * Returns the module of the name from search path, or null if not found.
+     * Standard modules take precedence over the modules in same directory.
+     */
+    @Nullable TLAplusModule findAvailableModule(@NotNull String moduleName);
+
+    /**
+     * Returns the module which the instance prefix refers to, or null if not found.
+     * The prefix consists of the names of module definitions separated by "!" (e.g. "A!B" for `A!B!Op`),
+     * each of which is looked up from public definitions of the module referred by preceding names,
+     * starting from this module.
+     */
+    @Nullable TLAplusModule resolveInstancePrefix(@NotNull String prefix);
 
     /**
      * Returns imported modules by extends.
@@ -1,94 +1,207 @@
 package com.mayreh.intellij.plugin.tlaplus.psi.ext;
 
-import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiUtils.isForwardReference;
+import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiUtils.instantiatedModule;
 import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiUtils.isLocal;
 import static com.mayreh.intellij.plugin.util.Optionalx.asInstanceOf;
 
-import java.net.URL;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import com.intellij.lang.ASTNode;
-import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.io.FileUtilRt;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDirectory;
-import com.intellij.util.ResourceUtil;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.CachedValueProvider.Result;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.containers.ConcurrentFactoryMap;
 import com.mayreh.intellij.plugin.tlaplus.TLAplusFile;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusFuncDefinition;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusInstance;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModule;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModuleGraph;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusOpDecl;
-import com.mayreh.intellij.plugin.util.TLAplusTreeUtil;
-import com.mayreh.intellij.plugin.util.TLAplusVfsUtil;
-
-public abstract class TLAplusModuleImplMixin extends TLAplusElementImpl implements TLAplusModule {
-    private static final Set<String> STANDARD_MODULES = Set.of(
-            "Bags", "FiniteSets", "Integers", "Json", "Naturals", "Randomization",
-            "Reals", "RealTime", "Sequences", "TLC", "TLCExt", "Toolbox");
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusStandardModules;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusModuleIndex;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusModuleStub;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusNamedElementStub;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusNamedElementStub.Kind;
 
+public abstract class TLAplusModuleImplMixin
+        extends TLAplusStubbedElementImpl<TLAplusModuleStub> implements TLAplusModule {
     protected TLAplusModuleImplMixin(@NotNull ASTNode node) {
         super(node);
     }
 
+    protected TLAplusModuleImplMixin(@NotNull TLAplusModuleStub stub, @NotNull IStubElementType<?, ?> nodeType) {
+        super(stub, nodeType);
+    }
+
+    protected TLAplusModuleImplMixin(TLAplusModuleStub stub, IElementType nodeType, ASTNode node) {
+        super(stub, nodeType, node);
+    }
+
     @Override
-    public @NotNull Stream<TLAplusNamedElement> localDefinitions(
-            @NotNull TLAplusElement placement) {
-        Stream.Builder<Stream<TLAplusNamedElement>> streams = Stream.builder();
+    public @NotNull TLAplusNameTable localNameTable() {
+        return CachedValuesManager.getCachedValue(this, () -> {
+            TLAplusNameTable.Builder builder = TLAplusNameTable.builder();
+            ownDefinitions(true).forEach(builder::add);
+            TLAplusModuleGraph.getInstance(getProject()).extendedModules(this).forEach(
+                    module -> builder.addAll(module.publicNameTable(), TLAplusNameTable.ALWAYS_VISIBLE));
+            // Definitions in the module instantiated by INSTANCE only visible
+            // after INSTANCE declaration.
+            for (TLAplusInstance instance : getInstanceList()) {
+                TLAplusModule module = findInstantiatedModule(instance);
+                if (module != null) {
+                    builder.addAll(module.publicNameTable(), instance.getTextOffset());
+                }
+            }
+            return Result.create(builder.build(), PsiModificationTracker.MODIFICATION_COUNT);
+        });
+    }
 
-        streams.add(definitions((container, name) -> !isForwardReference(placement, name)));
-        streams.add(modulesFromExtends().flatMap(TLAplusModuleContext::publicDefinitions));
-        // Definitions in the module instantiated by INSTANCE only visible
-        // after INSTANCE declaration.
-        streams.add(modulesFromInstantiation(i -> i.getTextOffset() <= placement.getTextOffset())
-                            .flatMap(TLAplusModuleContext::publicDefinitions));
+    @Override
+    public @NotNull TLAplusNameTable publicNameTable() {
+        return CachedValuesManager.getCachedValue(this, () -> {
+            TLAplusNameTable.Builder builder = TLAplusNameTable.builder();
+            // Imported modules are looked up from the graph rather than their public tables,
+            // so that cyclic EXTENDS doesn't recurse.
+            // Offsets don't matter for public definitions,
+            // and aren't looked up to avoid loading AST of other modules.
+            for (TLAplusModule module : TLAplusModuleGraph.getInstance(getProject()).publicClosure(this)) {
+                module.ownDefinitions(false).forEach(name -> builder.add(name, TLAplusNameTable.ALWAYS_VISIBLE));
+            }
+            // standard modules never change, so the table can be kept until the file is reloaded
+            Object dependency = TLAplusStandardModules.getInstance().isStandardModule(this) ?
+                                getContainingFile() : PsiModificationTracker.MODIFICATION_COUNT;
+            return Result.create(builder.build(), dependency);
+        });
+    }
 
-        return streams.build().flatMap(Function.identity());
+    @Override
+    public @Nullable TLAplusModule resolveInstancePrefix(@NotNull String prefix) {
+        // Specs refining through several instantiated layers share same prefixes in many references,
+        // so resolved modules are cached by the prefix text.
+        Map<String, Optional<TLAplusModule>> cache = CachedValuesManager.getCachedValue(this, () -> Result.create(
+                ConcurrentFactoryMap.createMap(this::computeInstancePrefix),
+                PsiModificationTracker.MODIFICATION_COUNT));
+        return cache.get(prefix).orElse(null);
+    }
+
+    private @NotNull Optional<TLAplusModule> computeInstancePrefix(@NotNull String prefix) {
+        int separator = prefix.indexOf('!');
+        String head = separator < 0 ? prefix : prefix.substring(0, separator);
+        Optional<TLAplusModule> module = publicDefinitions(head)
+                .flatMap(name -> Optional.ofNullable(instantiatedModule(name)).stream())
+                .findFirst();
+        if (separator < 0) {
+            return module;
+        }
+        return module.flatMap(m -> Optional.ofNullable(m.resolveInstancePrefix(prefix.substring(separator + 1))));
     }
 
     @Override
-    public @NotNull Stream<TLAplusNamedElement> publicDefinitions() {
-        Stream.Builder<Stream<TLAplusNamedElement>> streams = Stream.builder();
-        streams.add(definitions((container, name) -> !isLocal(container)));
-        streams.add(modulesFromExtends().flatMap(TLAplusModuleContext::publicDefinitions));
-        streams.add(modulesFromInstantiation(i -> !isLocal(i)).flatMap(TLAplusModuleContext::publicDefinitions));
+    public @NotNull Stream<TLAplusNamedElement> ownDefinitions(boolean includeLocal) {
+        return definitions((local, name) -> includeLocal || !local);
+    }
 
-        return streams.build().flatMap(Function.identity());
+    @Override
+    public @NotNull Stream<TLAplusModule> availableModules(@NotNull Predicate<String> nameFilter) {
+        return Stream.concat(TLAplusStandardModules.getInstance().modules(getProject(), nameFilter),
+                             modulesInSameDirectory(null, nameFilter));
     }
 
     @Override
-    public @NotNull Stream<TLAplusModule> availableModules() {
-        Stream<TLAplusModule> standardModules = standardModules();
-        Stream<TLAplusModule> modulesInSameDir =
-                Optional.ofNullable(getContainingFile())
-                        .stream()
-                        .flatMap(file -> {
-                            PsiDirectory directory = file.getOriginalFile().getContainingDirectory();
-                            if (directory != null) {
-                                return Stream.of(Pair.pair(file, directory));
-                            }
-                            return asInstanceOf(getContainingFile(), TLAplusFile.class)
-                                    .flatMap(f -> Optional.ofNullable(f.directory()))
-                                    .map(dir -> Pair.pair(file, dir))
-                                    .stream();
-                        })
-                        .flatMap(pair -> Arrays
-                                .stream(pair.second.getFiles())
-                                // this file should not be included
-                                .filter(f -> f.getName().endsWith(".tla") && !f.getName().equals(pair.first.getName()))
-                                .flatMap(f -> TLAplusTreeUtil.findChildOfType(f, TLAplusModule.class).stream()));
-
-        return Stream.concat(standardModules, modulesInSameDir);
+    public @Nullable TLAplusModule findAvailableModule(@NotNull String moduleName) {
+        TLAplusModule standardModule = TLAplusStandardModules.getInstance().findModule(getProject(), moduleName);
+        if (standardModule != null) {
+            return standardModule;
+        }
+        return modulesInSameDirectory(moduleName, name -> true).findFirst().orElse(null);
     }
 
+    /**
+     * Returns the modules in the same directory as this module.
+     * If the moduleName is specified, only the modules of the name are returned.
+     * Otherwise, the modules whose name matches the nameFilter are returned.
+     */
+    private @NotNull Stream<TLAplusModule> modulesInSameDirectory(@Nullable String moduleName,
+                                                                 @NotNull Predicate<String> nameFilter) {
+        PsiFile file = getContainingFile();
+        if (file == null) {
+            return Stream.empty();
+        }
+        PsiDirectory directory = file.getOriginalFile().getContainingDirectory();
+        if (directory == null) {
+            directory = asInstanceOf(file, TLAplusFile.class).map(TLAplusFile::directory).orElse(null);
+        }
+        if (directory == null) {
+            return Stream.empty();
+        }
+
+        Stream<TLAplusModule> modules;
+        ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(getProject());
+        VirtualFile dir = directory.getVirtualFile();
+        // the index isn't available while indexing, so the directory is scanned instead
+        if (!DumbService.isDumb(getProject()) && (fileIndex.isInContent(dir) || fileIndex.isInLibrary(dir))) {
+            GlobalSearchScope scope = GlobalSearchScopesCore.directoryScope(directory, false);
+            modules = moduleName != null ?
+                      TLAplusModuleIndex.find(getProject(), moduleName, scope) :
+                      TLAplusModuleIndex.findAll(getProject(), scope, nameFilter);
+        } else {
+            // files outside of the project are not indexed either
+            modules = Arrays.stream(directory.getFiles())
+                            .filter(f -> f.getName().endsWith(".tla") &&
+                                         nameFilter.test(FileUtilRt.getNameWithoutExtension(f.getName())))
+                            .flatMap(f -> asInstanceOf(f, TLAplusFile.class)
+                                    .flatMap(tlaFile -> Optional.ofNullable(tlaFile.module()))
+                                    .stream())
+                            .filter(m -> moduleName == null || moduleName.equals(m.getModuleHeader().getName()));
+        }
+        // this file should not be included
+        return modules.filter(m -> !file.getName().equals(m.getContainingFile().getName()));
+    }
+
+    /**
+     * Returns module-level definitions which meet the requirement.
+     * The requirement is tested against whether the definition is LOCAL and its name.
+     *
+     * Definitions are taken from the stub if available, so that the AST of other modules
+     * isn't loaded on resolving names through EXTENDS or INSTANCE.
+     */
     private @NotNull Stream<TLAplusNamedElement> definitions(
-            BiPredicate<TLAplusElement, TLAplusNamedElement> requirement) {
+            BiPredicate<Boolean, TLAplusNamedElement> requirement) {
+        TLAplusModuleStub stub = getGreenStub();
+        if (stub != null) {
+            return stub.getChildrenStubs()
+                       .stream()
+                       .flatMap(child -> asInstanceOf(child, TLAplusNamedElementStub.class).stream())
+                       .filter(child -> child.kind() != Kind.MODULE)
+                       // to return definitions in same order as AST-based lookup
+                       .sorted(Comparator.comparing(TLAplusNamedElementStub::kind))
+                       .filter(child -> requirement.test(child.isLocal(), child.getPsi()))
+                       .map(TLAplusNamedElementStub::getPsi);
+        }
+
         Stream.Builder<Stream<TLAplusNamedElement>> streams = Stream.builder();
 
         streams.add(getVariableDeclList()
@@ -96,7 +209,7 @@ public abstract class TLAplusModuleImplMixin extends TLAplusElementImpl implemen
                             .flatMap(decl -> decl
                                     .getVariableNameList()
                                     .stream()
-                                    .filter(name -> requirement.test(decl, name))));
+                                    .filter(name -> requirement.test(false, name))));
 
         streams.add(getConstantDeclList()
                             .stream()
@@ -104,22 +217,22 @@ public abstract class TLAplusModuleImplMixin extends TLAplusElementImpl implemen
                                     .getOpDeclList()
                                     .stream()
                                     .map(TLAplusOpDecl::getOpName)
-                                    .filter(name -> requirement.test(decl, name))));
+                                    .filter(name -> requirement.test(false, name))));
 
         streams.add(getOpDefinitionList()
                             .stream()
                             .filter(def -> def.getNonfixLhs() != null &&
-                                           requirement.test(def, def.getNonfixLhs().getNonfixLhsName()))
+                                           requirement.test(isLocal(def), def.getNonfixLhs().getNonfixLhsName()))
                             .map(def -> def.getNonfixLhs().getNonfixLhsName()));
 
         streams.add(getFuncDefinitionList()
                             .stream()
-                            .filter(def -> requirement.test(def, def.getFuncName()))
+                            .filter(def -> requirement.test(isLocal(def), def.getFuncName()))
                             .map(TLAplusFuncDefinition::getFuncName));
 
         streams.add(getModuleDefinitionList()
                             .stream()
-                            .filter(def -> requirement.test(def, def.getNonfixLhs().getNonfixLhsName()))
+                            .filter(def -> requirement.test(isLocal(def), def.getNonfixLhs().getNonfixLhsName()))
                             .map(def -> def.getNonfixLhs().getNonfixLhsName()));
 
         return streams.build().flatMap(Function.identity());
@@ -127,10 +240,9 @@ public abstract class TLAplusModuleImplMixin extends TLAplusElementImpl implemen
 
     @Override
     public @NotNull Stream<TLAplusModule> modulesFromExtends() {
-        return getModuleRefList()
+        return extendedModuleNames()
                 .stream()
-                .map(TLAplusReferenceElement::getReferenceName)
-                .flatMap(moduleName -> availableModules().filter(m -> moduleName.equals(m.getModuleHeader().getName())));
+                .flatMap(moduleName -> Optional.ofNullable(findAvailableModule(moduleName)).stream());
     }
 
     @Override
@@ -138,23 +250,23 @@ public abstract class TLAplusModuleImplMixin extends TLAplusElementImpl implemen
             Predicate<TLAplusInstance> requirement) {
         return getInstanceList()
                 .stream()
-                .filter(i -> requirement.test(i) && i.getModuleRef() != null)
-                .map(i -> i.getModuleRef().getReferenceName())
-                .flatMap(moduleName -> availableModules().filter(m -> moduleName.equals(m.getModuleHeader().getName())));
+                .filter(requirement)
+                .flatMap(i -> Optional.ofNullable(findInstantiatedModule(i)).stream());
+    }
+
+    private @Nullable TLAplusModule findInstantiatedModule(@NotNull TLAplusInstantiation instance) {
+        String moduleName = instance.instantiatedModuleName();
+        return moduleName != null ? findAvailableModule(moduleName) : null;
     }
 
-    private @NotNull Stream<TLAplusModule> standardModules() {
-        return STANDARD_MODULES
+    private @NotNull List<String> extendedModuleNames() {
+        TLAplusModuleStub stub = getGreenStub();
+        if (stub != null) {
+            return stub.extendedModuleNames();
+        }
+        return getModuleRefList()
                 .stream()
-                .flatMap(moduleName -> {
-                    URL url = ResourceUtil.getResource(
-                            getClass().getClassLoader(),
-                            "tla2sany/StandardModules",
-                            moduleName + ".tla");
-                    return TLAplusVfsUtil
-                            .findFile(getProject(), url)
-                            .flatMap(file -> TLAplusTreeUtil.findChildOfType(file, TLAplusModule.class))
-                            .stream();
-                });
+                .map(TLAplusReferenceElement::getReferenceName)
+                .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,101 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.ext;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.util.CachedValueProvider.Result;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.mayreh.intellij.plugin.tlaplus.TLAplusFile;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModule;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+
+/**
+ * Resolves all references in a module in single pass.
+ *
+ * The module is walked once while maintaining the stack of name contexts enclosing the current element,
+ * so that local definitions are looked up from the stack instead of walking contexts upward for each reference.
+ * The bindings of all references are cached in one map until PSI is modified.
+ */
+public final class TLAplusModuleResolver {
+    private TLAplusModuleResolver() {
+    }
+
+    /**
+     * Returns the resolve results of the reference element,
+     * or null if the element is not inside a module of TLA+ file (e.g. code fragments).
+     */
+    public static ResolveResult @Nullable [] resolve(@NotNull TLAplusReferenceElement element) {
+        PsiFile file = element.getContainingFile();
+        if (!(file instanceof TLAplusFile)) {
+            return null;
+        }
+        TLAplusModule module = ((TLAplusFile) file).module();
+        if (module == null) {
+            return null;
+        }
+        return bindings(module).get(element);
+    }
+
+    /**
+     * Returns the table from each reference element in the module to its resolve results.
+     */
+    public static @NotNull Map<TLAplusReferenceElement, ResolveResult[]> bindings(@NotNull TLAplusModule module) {
+        return CachedValuesManager.getCachedValue(module, () -> Result.create(
+                computeBindings(module), PsiModificationTracker.MODIFICATION_COUNT));
+    }
+
+    private static @NotNull Map<TLAplusReferenceElement, ResolveResult[]> computeBindings(
+            @NotNull TLAplusModule module) {
+        Map<TLAplusReferenceElement, ResolveResult[]> bindings = new HashMap<>();
+        // name contexts enclosing the current element, innermost first
+        Deque<TLAplusNameContext> scopes = new ArrayDeque<>();
+        TLAplusReference.LocalScope localScope = (placement, name) -> lookup(scopes, placement, name);
+
+        module.accept(new PsiRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitElement(@NotNull PsiElement element) {
+                if (element instanceof TLAplusReferenceElement &&
+                    element.getReference() instanceof TLAplusReference) {
+                    TLAplusReference<?> reference = (TLAplusReference<?>) element.getReference();
+                    bindings.put((TLAplusReferenceElement) element, reference.resolveWith(localScope));
+                }
+                if (element instanceof TLAplusNameContext) {
+                    scopes.push((TLAplusNameContext) element);
+                }
+                super.visitElement(element);
+            }
+
+            @Override
+            protected void elementFinished(PsiElement element) {
+                if (element instanceof TLAplusNameContext) {
+                    scopes.pop();
+                }
+            }
+        });
+        return bindings;
+    }
+
+    private static @NotNull Stream<TLAplusNamedElement> lookup(@NotNull Deque<TLAplusNameContext> scopes,
+                                                               @NotNull TLAplusElement placement,
+                                                               @Nullable String name) {
+        Stream.Builder<TLAplusNamedElement> definitions = Stream.builder();
+        int offset = placement.getTextOffset();
+        for (TLAplusNameContext scope : scopes) {
+            TLAplusNameTable table = scope.localNameTable();
+            (name != null ? table.visibleDefinitions(offset, name) : table.visibleDefinitions(offset))
+                    .forEach(definitions::add);
+        }
+        return definitions.build();
+    }
+}
@@ -11,6 +11,12 @@ import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
  * e.g. Module, LET expression,...
  */
 public interface TLAplusNameContext extends TLAplusElement {
+    /**
+     * Returns the table of definitions in this context.
+     * Implementations should cache the table until PSI is modified.
+     */
+    @NotNull TLAplusNameTable localNameTable();
+
     /**
      * Returns the stream of definition in this context.
      * This method is intended and should be implemented to return the definition from
@@ -19,5 +25,15 @@ public interface TLAplusNameContext extends TLAplusElement {
      * To lookup definitions which visible to other modules publicly,
      * you should use {@link TLAplusModuleContext#publicDefinitions()}.
      */
-    @NotNull Stream<TLAplusNamedElement> localDefinitions(@NotNull TLAplusElement placement);
+    default @NotNull Stream<TLAplusNamedElement> localDefinitions(@NotNull TLAplusElement placement) {
+        return localNameTable().visibleDefinitions(placement.getTextOffset());
+    }
+
+    /**
+     * Same as {@link #localDefinitions(TLAplusElement)}, but returns only the definitions of the name.
+     */
+    default @NotNull Stream<TLAplusNamedElement> localDefinitions(@NotNull TLAplusElement placement,
+                                                                 @NotNull String name) {
+        return localNameTable().visibleDefinitions(placement.getTextOffset(), name);
+    }
 }
@@ -0,0 +1,162 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.ext;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * Multimap from name to the definitions in a context (scope).
+ *
+ * Each definition holds the offset from which the definition is visible,
+ * so that forward references can be checked by comparing offsets without touching PSI.
+ * Tables are intended to be cached per context, and not to be modified once built.
+ */
+public class TLAplusNameTable {
+    public static final TLAplusNameTable EMPTY = builder().build();
+
+    /**
+     * Offset for the definitions which are visible from anywhere in the context.
+     */
+    public static final int ALWAYS_VISIBLE = Integer.MIN_VALUE;
+
+    @Value
+    @Accessors(fluent = true)
+    private static class Entry {
+        String name;
+        TLAplusNamedElement element;
+        int visibleFrom;
+    }
+
+    // all entries in the order of addition
+    private final List<Entry> entries;
+    private final Map<String, List<Entry>> entriesByName;
+
+    private TLAplusNameTable(List<Entry> entries, Map<String, List<Entry>> entriesByName) {
+        this.entries = entries;
+        this.entriesByName = entriesByName;
+    }
+
+    public static @NotNull Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns all definitions in the table.
+     */
+    public @NotNull Stream<TLAplusNamedElement> definitions() {
+        return entries.stream().map(Entry::element);
+    }
+
+    /**
+     * Returns the definitions of the name.
+     */
+    public @NotNull Stream<TLAplusNamedElement> definitions(@NotNull String name) {
+        return entriesByName.getOrDefault(name, Collections.emptyList()).stream().map(Entry::element);
+    }
+
+    /**
+     * Returns the definitions whose name matches the filter.
+     * Names are tested without touching PSI, so that filtering many definitions (e.g. on completion) is cheap.
+     */
+    public @NotNull Stream<TLAplusNamedElement> definitions(@NotNull Predicate<String> nameFilter) {
+        return entries.stream().filter(e -> nameFilter.test(e.name())).map(Entry::element);
+    }
+
+    /**
+     * Returns all definitions which are visible from the offset.
+     */
+    public @NotNull Stream<TLAplusNamedElement> visibleDefinitions(int offset) {
+        return entries.stream().filter(e -> e.visibleFrom() <= offset).map(Entry::element);
+    }
+
+    /**
+     * Returns the definitions of the name which are visible from the offset.
+     */
+    public @NotNull Stream<TLAplusNamedElement> visibleDefinitions(int offset, @NotNull String name) {
+        return entriesByName.getOrDefault(name, Collections.emptyList())
+                            .stream()
+                            .filter(e -> e.visibleFrom() <= offset)
+                            .map(Entry::element);
+    }
+
+    /**
+     * Returns the definitions which are visible from the offset and whose name matches the filter.
+     */
+    public @NotNull Stream<TLAplusNamedElement> visibleDefinitions(int offset,
+                                                                   @NotNull Predicate<String> nameFilter) {
+        return entries.stream()
+                      .filter(e -> e.visibleFrom() <= offset && nameFilter.test(e.name()))
+                      .map(Entry::element);
+    }
+
+    public static class Builder {
+        private final List<Entry> entries = new ArrayList<>();
+        private final Map<String, List<Entry>> entriesByName = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Add the definition which is visible after its name.
+         */
+        public @NotNull Builder add(@Nullable TLAplusNamedElement element) {
+            if (element != null) {
+                add(element, element.getTextOffset());
+            }
+            return this;
+        }
+
+        public @NotNull Builder add(@Nullable TLAplusNamedElement element, int visibleFrom) {
+            String name = element != null ? element.getName() : null;
+            if (name == null) {
+                return this;
+            }
+            addEntry(new Entry(name, element, visibleFrom));
+            return this;
+        }
+
+        /**
+         * Add the definitions each of which is visible after its name.
+         */
+        public @NotNull Builder addAll(@NotNull Collection<? extends TLAplusNamedElement> elements) {
+            elements.forEach(this::add);
+            return this;
+        }
+
+        public @NotNull Builder addAll(@NotNull Collection<? extends TLAplusNamedElement> elements,
+                                       int visibleFrom) {
+            elements.forEach(e -> add(e, visibleFrom));
+            return this;
+        }
+
+        /**
+         * Add all definitions in the table, as visible from the offset.
+         */
+        public @NotNull Builder addAll(@NotNull TLAplusNameTable table, int visibleFrom) {
+            table.entries.forEach(e -> addEntry(new Entry(e.name(), e.element(), visibleFrom)));
+            return this;
+        }
+
+        private void addEntry(@NotNull Entry entry) {
+            entries.add(entry);
+            entriesByName.computeIfAbsent(entry.name(), k -> new ArrayList<>(1)).add(entry);
+        }
+
+        public @NotNull TLAplusNameTable build() {
+            return new TLAplusNameTable(entries, entriesByName);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.mayreh.intellij.plugin.tlaplus.psi.ext;
 
+import javax.swing.Icon;
+
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import com.intellij.lang.ASTNode;
+import com.intellij.navigation.ItemPresentation;
 import com.intellij.psi.PsiElement;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
@@ -39,4 +42,14 @@ public abstract class TLAplusNamedElementImpl extends TLAplusElementImpl impleme
         PsiElement identifier = getNameIdentifier();
         return identifier != null ? identifier.getText() : super.getName();
     }
+
+    @Override
+    public ItemPresentation getPresentation() {
+        return new TLAplusNamedElementPresentation(this);
+    }
+
+    @Override
+    protected @Nullable Icon getElementIcon(int flags) {
+        return TLAplusNamedElementPresentation.icon(this);
+    }
 }
@@ -0,0 +1,64 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.ext;
+
+import javax.swing.Icon;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.navigation.ItemPresentation;
+import com.intellij.psi.PsiFile;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiUtils;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusNamedElementStub.Kind;
+
+/**
+ * Presentation of a definition in navigation popups (e.g. Go to Symbol) and completion.
+ *
+ * Everything is taken from the stub if available, so presenting definitions of other modules
+ * doesn't load their AST.
+ */
+public class TLAplusNamedElementPresentation implements ItemPresentation {
+    private final TLAplusNamedElement element;
+
+    public TLAplusNamedElementPresentation(@NotNull TLAplusNamedElement element) {
+        this.element = element;
+    }
+
+    @Override
+    public @Nullable String getPresentableText() {
+        return element.getName();
+    }
+
+    @Override
+    public @Nullable String getLocationString() {
+        PsiFile file = element.getContainingFile();
+        return file != null ? file.getName() : null;
+    }
+
+    @Override
+    public @NotNull Icon getIcon(boolean unused) {
+        return icon(element);
+    }
+
+    public static @NotNull Icon icon(@NotNull TLAplusNamedElement element) {
+        Kind kind = TLAplusPsiUtils.kind(element);
+        if (kind == null) {
+            // bound names, arguments or definitions in LET
+            return TLAplusPsiUtils.arity(element) > 0 ? AllIcons.Nodes.Method : AllIcons.Nodes.Parameter;
+        }
+        switch (kind) {
+            case VARIABLE:
+                return AllIcons.Nodes.Variable;
+            case CONSTANT:
+                return AllIcons.Nodes.Constant;
+            case FUNCTION:
+                return AllIcons.Nodes.Function;
+            case MODULE_DEFINITION:
+            case MODULE:
+                return AllIcons.Nodes.Module;
+            default:
+                return AllIcons.Nodes.Method;
+        }
+    }
+}
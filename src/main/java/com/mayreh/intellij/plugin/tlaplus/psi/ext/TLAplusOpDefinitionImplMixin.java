@@ -1,14 +1,11 @@
 package com.mayreh.intellij.plugin.tlaplus.psi.ext;
 
-import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiUtils.isForwardReference;
-
-import java.util.function.Function;
-import java.util.stream.Stream;
-
 import org.jetbrains.annotations.NotNull;
 
 import com.intellij.lang.ASTNode;
-import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+import com.intellij.psi.util.CachedValueProvider.Result;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusOpDecl;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusOpDefinition;
 
@@ -18,15 +15,13 @@ public abstract class TLAplusOpDefinitionImplMixin extends TLAplusElementImpl im
     }
 
     @Override
-    public @NotNull Stream<TLAplusNamedElement> localDefinitions(
-            @NotNull TLAplusElement placement) {
-        if (getNonfixLhs() != null) {
-            return getNonfixLhs().getOpDeclList()
-                                 .stream()
-                                 .map(TLAplusOpDecl::getOpName)
-                                 .filter(name -> name != null && !isForwardReference(placement, name))
-                                 .map(Function.identity());
-        }
-        return Stream.empty();
+    public @NotNull TLAplusNameTable localNameTable() {
+        return CachedValuesManager.getCachedValue(this, () -> {
+            TLAplusNameTable.Builder builder = TLAplusNameTable.builder();
+            if (getNonfixLhs() != null) {
+                getNonfixLhs().getOpDeclList().stream().map(TLAplusOpDecl::getOpName).forEach(builder::add);
+            }
+            return Result.create(builder.build(), PsiModificationTracker.MODIFICATION_COUNT);
+        });
     }
 }
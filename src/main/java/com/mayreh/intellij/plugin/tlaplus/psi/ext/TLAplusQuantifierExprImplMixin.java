@@ -1,14 +1,11 @@
 package com.mayreh.intellij.plugin.tlaplus.psi.ext;
 
-import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiUtils.isForwardReference;
-
-import java.util.function.Function;
-import java.util.stream.Stream;
-
 import org.jetbrains.annotations.NotNull;
 
 import com.intellij.lang.ASTNode;
-import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+import com.intellij.psi.util.CachedValueProvider.Result;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusQuantifierExpr;
 
 public abstract class TLAplusQuantifierExprImplMixin extends TLAplusElementImpl implements TLAplusQuantifierExpr {
@@ -17,11 +14,9 @@ public abstract class TLAplusQuantifierExprImplMixin extends TLAplusElementImpl
     }
 
     @Override
-    public @NotNull Stream<TLAplusNamedElement> localDefinitions(
-            @NotNull TLAplusElement placement) {
-        return getBoundNameList()
-                .stream()
-                .filter(e -> !isForwardReference(placement, e))
-                .map(Function.identity());
+    public @NotNull TLAplusNameTable localNameTable() {
+        return CachedValuesManager.getCachedValue(this, () -> Result.create(
+                TLAplusNameTable.builder().addAll(getBoundNameList()).build(),
+                PsiModificationTracker.MODIFICATION_COUNT));
     }
 }
@@ -1,11 +1,11 @@
 package com.mayreh.intellij.plugin.tlaplus.psi.ext;
 
-import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiUtils.isLocal;
+import static com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiUtils.instantiatedModule;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.jetbrains.annotations.NotNull;
@@ -13,22 +13,23 @@ import org.jetbrains.annotations.Nullable;
 
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiNamedElement;
-import com.intellij.psi.PsiReferenceBase;
+import com.intellij.psi.PsiElementResolveResult;
+import com.intellij.psi.PsiPolyVariantReferenceBase;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ArrayUtilRt;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusGeneralIdentifier;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusInstance;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusInstancePrefix;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModule;
-import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModuleDefinition;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModuleRef;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiFactory;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusSubstitutingIdent;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusUnqualifiedIdent;
 
-public class TLAplusReference<T extends TLAplusReferenceElement> extends PsiReferenceBase<T> {
+public class TLAplusReference<T extends TLAplusReferenceElement> extends PsiPolyVariantReferenceBase<T> {
     public TLAplusReference(@NotNull T element) {
         super(element, new TextRange(0, element.getTextLength()));
     }
@@ -40,87 +41,176 @@ public class TLAplusReference<T extends TLAplusReferenceElement> extends PsiRefe
         return getElement();
     }
 
-    // TODO: Change icons by modules/constants/variables/... etc
+    /**
+     * Variants are provided by {@link com.mayreh.intellij.plugin.tlaplus.TLAplusCompletionContributor}
+     * through {@link #completionVariants(Predicate)} instead, to filter names before creating lookup elements.
+     */
     @Override
     public Object @NotNull [] getVariants() {
+        return ArrayUtilRt.EMPTY_OBJECT_ARRAY;
+    }
+
+    /**
+     * Returns the stream of definitions which the reference can refer to and whose name matches the filter,
+     * from the innermost scope.
+     * Names are tested before touching PSI of the definitions, and the stream is lazy,
+     * so callers can stop consuming it early.
+     */
+    public @NotNull Stream<TLAplusNamedElement> completionVariants(@NotNull Predicate<String> nameFilter) {
         TLAplusModule currentModule = getElement().currentModule();
         if (currentModule == null) {
-            return ArrayUtilRt.EMPTY_OBJECT_ARRAY;
+            return Stream.empty();
         }
 
         if (getElement() instanceof TLAplusUnqualifiedIdent) {
-            return unqualifiedIdentVariants(currentModule, (TLAplusUnqualifiedIdent) getElement())
-                    .map(PsiNamedElement::getName)
-                    .toArray();
+            TLAplusInstancePrefix prefix = null;
+            if (getElement().getParent() instanceof TLAplusGeneralIdentifier) {
+                prefix = ((TLAplusGeneralIdentifier) getElement().getParent()).getInstancePrefix();
+            }
+            if (prefix == null) {
+                return localVariantsMatching(getElement(), nameFilter);
+            }
+            TLAplusModule resolvedModule = resolveInstancePrefix(
+                    currentModule, prefix.getModuleRefList(), TLAplusReference::localVariants);
+            return resolvedModule != null ? resolvedModule.publicNameTable().definitions(nameFilter)
+                                          : Stream.empty();
         }
 
         if (getElement() instanceof TLAplusSubstitutingIdent) {
-            TLAplusSubstitutingIdent ident = (TLAplusSubstitutingIdent) getElement();
-            TLAplusInstance instance = PsiTreeUtil.getParentOfType(ident, TLAplusInstance.class);
+            TLAplusInstance instance = PsiTreeUtil.getParentOfType(getElement(), TLAplusInstance.class);
             if (instance != null && instance.getModuleRef() != null) {
-                TLAplusModule module = currentModule
-                        .availableModules()
-                        .filter(m -> instance.getModuleRef().getReferenceName().equals(m.getModuleHeader().getName()))
-                        .findFirst()
-                        .orElse(null);
+                TLAplusModule module = currentModule.findAvailableModule(
+                        instance.getModuleRef().getReferenceName());
                 if (module != null) {
-                    return module.publicDefinitions()
-                                 .map(PsiNamedElement::getName)
-                                 .toArray();
+                    return module.publicNameTable().definitions(nameFilter);
                 }
             }
         }
 
         if (getElement() instanceof TLAplusModuleRef) {
-            return currentModule.availableModules()
-                                .flatMap(m -> Optional.ofNullable(m.getModuleHeader().getName()).stream())
-                                .toArray();
+            return currentModule.availableModules(nameFilter).map(TLAplusModule::getModuleHeader);
         }
 
-        return ArrayUtilRt.EMPTY_OBJECT_ARRAY;
+        return Stream.empty();
+    }
+
+    /**
+     * Same as {@link #completionVariants(Predicate)}, but returns only the variants which can be found
+     * without indices, i.e. the definitions in the current module, so that completion works in dumb mode.
+     * Definitions from extended or instantiated modules and module names are not returned.
+     */
+    public @NotNull Stream<TLAplusNamedElement> localCompletionVariants(@NotNull Predicate<String> nameFilter) {
+        if (!(getElement() instanceof TLAplusUnqualifiedIdent)) {
+            return Stream.empty();
+        }
+        if (getElement().getParent() instanceof TLAplusGeneralIdentifier &&
+            ((TLAplusGeneralIdentifier) getElement().getParent()).getInstancePrefix() != null) {
+            return Stream.empty();
+        }
+        int offset = getElement().getTextOffset();
+        return nameContexts(getElement()).flatMap(context -> {
+            // module's local table contains the definitions from other modules, which are looked up from the index
+            if (context instanceof TLAplusModule) {
+                return ((TLAplusModule) context)
+                        .ownDefinitions(true)
+                        .filter(def -> def.getName() != null && nameFilter.test(def.getName()) &&
+                                       def.getTextOffset() <= offset);
+            }
+            return context.localNameTable().visibleDefinitions(offset, nameFilter);
+        });
     }
 
     @Override
     public @Nullable PsiElement resolve() {
+        // Candidates are ordered from the innermost scope, so the first one is the nearest definition
+        ResolveResult[] results = multiResolve(false);
+        return results.length > 0 ? results[0].getElement() : null;
+    }
+
+    @Override
+    public ResolveResult @NotNull [] multiResolve(boolean incompleteCode) {
+        return ResolveCache.getInstance(getElement().getProject())
+                           .resolveWithCaching(this, Resolver.INSTANCE, false, incompleteCode);
+    }
+
+    /**
+     * References are compared by the element, so that {@link ResolveCache} hits
+     * even though reference instances are created on every {@link PsiElement#getReference()} call.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TLAplusReference && getElement() == ((TLAplusReference<?>) o).getElement();
+    }
+
+    @Override
+    public int hashCode() {
+        return getElement().hashCode();
+    }
+
+    private static class Resolver implements ResolveCache.PolyVariantResolver<TLAplusReference<?>> {
+        static final Resolver INSTANCE = new Resolver();
+
+        @Override
+        public ResolveResult @NotNull [] resolve(@NotNull TLAplusReference<?> ref, boolean incompleteCode) {
+            // References in a module are resolved at once on first access
+            ResolveResult[] results = TLAplusModuleResolver.resolve(ref.getElement());
+            if (results != null) {
+                return results;
+            }
+            return ref.resolveWith(TLAplusReference::localVariants);
+        }
+    }
+
+    /**
+     * Looks up the definitions which are visible at the placement in the same module.
+     * If the name is specified, only the definitions of the name are returned.
+     */
+    @FunctionalInterface
+    interface LocalScope {
+        @NotNull Stream<TLAplusNamedElement> lookup(@NotNull TLAplusElement placement, @Nullable String name);
+    }
+
+    /**
+     * Resolves the reference, looking up the definitions in the same module by the localScope.
+     */
+    ResolveResult @NotNull [] resolveWith(@NotNull LocalScope localScope) {
+        return PsiElementResolveResult.createResults(
+                resolveCandidates(localScope).distinct().collect(Collectors.toList()));
+    }
+
+    /**
+     * Returns all definitions the reference may be resolved to, from the innermost scope.
+     */
+    private @NotNull Stream<? extends PsiElement> resolveCandidates(@NotNull LocalScope localScope) {
         TLAplusModule currentModule = getElement().currentModule();
         if (currentModule == null) {
-            return null;
+            return Stream.empty();
         }
 
         if (getElement() instanceof TLAplusUnqualifiedIdent) {
-            return unqualifiedIdentVariants(currentModule, (TLAplusUnqualifiedIdent) getElement())
-                    .filter(name -> getElement().getReferenceName().equals(name.getName()))
-                    .findFirst()
-                    .orElse(null);
+            return unqualifiedIdentVariants(currentModule,
+                                            (TLAplusUnqualifiedIdent) getElement(),
+                                            getElement().getReferenceName(),
+                                            localScope);
         }
 
         if (getElement() instanceof TLAplusSubstitutingIdent) {
             TLAplusSubstitutingIdent ident = (TLAplusSubstitutingIdent) getElement();
             TLAplusInstance instance = PsiTreeUtil.getParentOfType(ident, TLAplusInstance.class);
             if (instance != null && instance.getModuleRef() != null) {
-                TLAplusModule module = currentModule
-                        .availableModules()
-                        .filter(m -> instance.getModuleRef().getReferenceName().equals(m.getModuleHeader().getName()))
-                        .findFirst()
-                        .orElse(null);
+                TLAplusModule module = currentModule.findAvailableModule(
+                        instance.getModuleRef().getReferenceName());
                 if (module != null) {
-                    return module.publicDefinitions()
-                                 .filter(name -> ident.getReferenceName().equals(name.getName()))
-                                 .findFirst()
-                                 .orElse(null);
+                    return module.publicDefinitions(ident.getReferenceName());
                 }
             }
         }
 
         if (getElement() instanceof TLAplusModuleRef) {
             // If the module is a plain module (i.e. without instantiation), just resolved to its module header.
-            TLAplusModule resolvedModule = currentModule
-                    .availableModules()
-                    .filter(m -> getElement().getReferenceName().equals(m.getModuleHeader().getName()))
-                    .findFirst()
-                    .orElse(null);
+            TLAplusModule resolvedModule = currentModule.findAvailableModule(getElement().getReferenceName());
             if (resolvedModule != null) {
-                return resolvedModule.getModuleHeader();
+                return Stream.of(resolvedModule.getModuleHeader());
             }
 
             if (getElement().getParent() instanceof TLAplusInstancePrefix) {
@@ -129,195 +219,112 @@ public class TLAplusReference<T extends TLAplusReferenceElement> extends PsiRefe
 
                 if (index == 0) {
                     // For first moduleReference, it should be resolved locally as like other element.
-                    return localVariants(getElement())
-                            .filter(name -> getElement().getReferenceName().equals(name.getName()))
-                            .findFirst()
-                            .orElse(null);
+                    return localScope.lookup(getElement(), getElement().getReferenceName());
                 }
                 if (index > 0) {
                     // Otherwise, search scope should be narrowed first and should resolve in that scope.
                     TLAplusModule scope = resolveInstancePrefix(
-                            currentModule, instancePrefix.getModuleRefList().subList(0, index));
+                            currentModule, instancePrefix.getModuleRefList().subList(0, index), localScope);
                     if (scope != null) {
-                        return scope.publicDefinitions()
-                                    .filter(name -> getElement().getReferenceName().equals(name.getName()))
-                                    .findFirst()
-                                    .orElse(null);
+                        return scope.publicDefinitions(getElement().getReferenceName());
                     }
                 }
             } else {
                 // If the module is not inside instance prefix, just resolve as like other element.
-                return localVariants(getElement())
-                        .filter(name -> getElement().getReferenceName().equals(name.getName()))
-                        .findFirst()
-                        .orElse(null);
+                return localScope.lookup(getElement(), getElement().getReferenceName());
             }
         }
 
-        return null;
+        return Stream.empty();
     }
 
+    /**
+     * Returns the stream of variants for the identifier.
+     * If the name is specified, only the variants of the name are returned.
+     */
     private static @NotNull Stream<TLAplusNamedElement> unqualifiedIdentVariants(
-            TLAplusModule currentModule, TLAplusUnqualifiedIdent element) {
+            TLAplusModule currentModule, TLAplusUnqualifiedIdent element, @Nullable String name,
+            LocalScope localScope) {
         TLAplusGeneralIdentifier generalIdentifier = null;
         if (element.getParent() instanceof TLAplusGeneralIdentifier) {
             generalIdentifier = (TLAplusGeneralIdentifier) element.getParent();
         }
 
         if (generalIdentifier == null || generalIdentifier.getInstancePrefix() == null) {
-            return localVariants(element);
+            return localScope.lookup(element, name);
         }
 
         TLAplusModule resolvedModule = resolveInstancePrefix(
                 currentModule,
-                generalIdentifier.getInstancePrefix().getModuleRefList());
+                generalIdentifier.getInstancePrefix().getModuleRefList(),
+                localScope);
 
         if (resolvedModule == null) {
             return Stream.empty();
         }
 
-        return resolvedModule.publicDefinitions();
+        return name != null ? resolvedModule.publicDefinitions(name) : resolvedModule.publicDefinitions();
     }
 
     private static @Nullable TLAplusModule resolveInstancePrefix(
-            TLAplusModule currentModule, List<TLAplusModuleRef> moduleRefs) {
-        if (moduleRefs.isEmpty()) {
+            TLAplusModule currentModule, List<TLAplusModuleRef> moduleRefs, LocalScope localScope) {
+        if (moduleRefs.isEmpty() || currentModule == null) {
             return null;
         }
 
-        TLAplusModule moduleScope = currentModule;
-        if (moduleScope == null) {
-            return null;
+        // We should lookup plain module (i.e. without instantiation) or find module definition locally first
+        // without taking visibility into account.
+        TLAplusModuleRef first = moduleRefs.get(0);
+        TLAplusModule module = currentModule.findAvailableModule(first.getReferenceName());
+        if (module == null) {
+            // Module definitions imported by EXTENDS or INSTANCE are also in the local scope
+            module = localScope.lookup(first, first.getReferenceName())
+                               .flatMap(name -> Optional.ofNullable(instantiatedModule(name)).stream())
+                               .findFirst()
+                               .orElse(null);
         }
-        for (int i = 0; i < moduleRefs.size(); i++) {
-            TLAplusModuleRef moduleRef = moduleRefs.get(i);
-            // We should lookup plain module (i.e. without instantiation) or find module definition locally first
-            // without taking visibility into account.
-            TLAplusModule module;
-            if (i == 0) {
-                module = moduleScope
-                        .availableModules()
-                        .filter(m -> moduleRef.getReferenceName().equals(m.getModuleHeader().getName()))
-                        .findFirst()
-                        .orElse(null);
-                if (module != null) {
-                    moduleScope = module;
-                    continue;
-                }
-                module = localModuleVariants(name -> moduleRef.getReferenceName().equals(name.getName()),
-                                             moduleScope,
-                                             moduleRef)
-                        .findFirst()
-                        .orElse(null);
-            } else {
-                module = publicModuleVariants(moduleScope,
-                                              name -> moduleRef.getReferenceName().equals(name.getName()))
-                        .findFirst()
-                        .orElse(null);
-            }
-            if (module != null) {
-                moduleScope = module;
-            } else {
-                // If failed to lookup module, just returns immediately
-                return null;
-            }
+        if (module == null || moduleRefs.size() == 1) {
+            return module;
         }
-        return moduleScope;
+
+        // Rest of the prefix doesn't depend on the placement, so it can be resolved by the cache of the module
+        String rest = moduleRefs.subList(1, moduleRefs.size())
+                                .stream()
+                                .map(TLAplusReferenceElement::getReferenceName)
+                                .collect(Collectors.joining("!"));
+        return module.resolveInstancePrefix(rest);
     }
 
-    private static @NotNull Stream<TLAplusModule> localModuleVariants(
-            Predicate<TLAplusNamedElement> moduleRefNameFilter,
-            TLAplusModule currentModule,
-            TLAplusElement placement) {
-        Stream.Builder<Stream<TLAplusModule>> streams = Stream.builder();
-
-        streams.add(
-                localVariants(placement)
-                        .filter(moduleRefNameFilter)
-                        .flatMap(e -> {
-                            if (e.getParent() == null) {
-                                return Stream.empty();
-                            }
-                            if (!(e.getParent().getParent() instanceof TLAplusModuleDefinition)) {
-                                return Stream.empty();
-                            }
-                            TLAplusModuleDefinition moduleDef = (TLAplusModuleDefinition) e.getParent().getParent();
-                            return Optional.ofNullable(moduleDef.getInstance().getModuleRef())
-                                           .flatMap(ref -> currentModule.availableModules()
-                                                                        .filter(m -> ref.getReferenceName().equals(
-                                                                                m.getModuleHeader().getName()))
-                                                                        .findFirst())
-                                           .stream();
-                        }));
-
-        streams.add(currentModule.modulesFromExtends()
-                                 .flatMap(m -> publicModuleVariants(m, moduleRefNameFilter))
-                                 .filter(m -> moduleRefNameFilter.test(m.getModuleHeader())));
-
-        streams.add(currentModule.modulesFromInstantiation(
-                                         instance -> instance.getTextOffset() <= placement.getTextOffset())
-                                 .flatMap(m -> publicModuleVariants(m, moduleRefNameFilter))
-                                 .filter(m -> moduleRefNameFilter.test(m.getModuleHeader())));
-
-        return streams.build().flatMap(Function.identity());
+    /**
+     * Same as {@link #localVariants(TLAplusElement, String)}, but returns the variants whose name matches the filter.
+     */
+    private static @NotNull Stream<TLAplusNamedElement> localVariantsMatching(TLAplusElement placement,
+                                                                              Predicate<String> nameFilter) {
+        int offset = placement.getTextOffset();
+        return nameContexts(placement).flatMap(
+                context -> context.localNameTable().visibleDefinitions(offset, nameFilter));
     }
 
     /**
      * Returns the stream of variants that are available at the placement.
+     * If the name is specified, only the variants of the name are returned.
      */
-    private static @NotNull Stream<TLAplusNamedElement> localVariants(TLAplusElement placement) {
-        TLAplusNameContext context = null;
-        if (placement.getContext() instanceof TLAplusNameContext) {
-            context = (TLAplusNameContext) placement.getContext();
-        }
-
-        Stream.Builder<Stream<TLAplusNamedElement>> streams = Stream.builder();
-        while (context != null) {
-            streams.add(context.localDefinitions(placement));
-
-            if (context.getContext() instanceof TLAplusNameContext) {
-                context = (TLAplusNameContext) context.getContext();
-            } else {
-                context = null;
-            }
-        }
-        return streams.build().flatMap(Function.identity());
+    private static @NotNull Stream<TLAplusNamedElement> localVariants(TLAplusElement placement,
+                                                                      @Nullable String name) {
+        return nameContexts(placement).flatMap(context -> name != null ? context.localDefinitions(placement, name)
+                                                                        : context.localDefinitions(placement));
     }
 
     /**
-     * Return the stream of modules which are visible in the context and meet specified moduleRefNameFilter.
-     * moduleRefNameFilter applies to the reference name that the module is exposed as.
-     * i.e. if we have module definition like `INSTANCE_X == INSTANCE X`, filter applies to `INSTANCE_X` (not X)
+     * Returns the stream of contexts enclosing the placement, from the innermost one.
      */
-    private static @NotNull Stream<TLAplusModule> publicModuleVariants(
-            TLAplusModule context,
-            Predicate<TLAplusNamedElement> moduleRefNameFilter) {
-        Stream.Builder<Stream<TLAplusModule>> streams = Stream.builder();
-
-        streams.add(context.getModuleDefinitionList()
-                           .stream()
-                           .flatMap(def -> {
-                               if (isLocal(def)) {
-                                   return Stream.empty();
-                               }
-                               if (!moduleRefNameFilter.test(def.getNonfixLhs().getNonfixLhsName())) {
-                                   return Stream.empty();
-                               }
-                               if (def.getInstance().getModuleRef() == null) {
-                                   return Stream.empty();
-                               }
-                               return context.availableModules()
-                                             .filter(m -> def.getInstance().getModuleRef().getReferenceName()
-                                                             .equals(m.getModuleHeader().getName()));
-                           }));
-
-        streams.add(context.modulesFromExtends()
-                           .filter(m -> moduleRefNameFilter.test(m.getModuleHeader()))
-                           .flatMap(m -> publicModuleVariants(m, moduleRefNameFilter)));
-        streams.add(context.modulesFromInstantiation(instance -> !isLocal(instance))
-                           .filter(m -> moduleRefNameFilter.test(m.getModuleHeader()))
-                           .flatMap(m -> publicModuleVariants(m, moduleRefNameFilter)));
-
-        return streams.build().flatMap(Function.identity());
+    private static @NotNull Stream<TLAplusNameContext> nameContexts(TLAplusElement placement) {
+        Stream.Builder<TLAplusNameContext> contexts = Stream.builder();
+        PsiElement context = placement.getContext();
+        while (context instanceof TLAplusNameContext) {
+            contexts.add((TLAplusNameContext) context);
+            context = context.getContext();
+        }
+        return contexts.build();
     }
 }
@@ -1,12 +1,11 @@
 package com.mayreh.intellij.plugin.tlaplus.psi.ext;
 
-import java.util.function.Function;
-import java.util.stream.Stream;
-
 import org.jetbrains.annotations.NotNull;
 
 import com.intellij.lang.ASTNode;
-import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+import com.intellij.psi.util.CachedValueProvider.Result;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusSetComprehensionMap;
 
 public abstract class TLAplusSetComprehensionMapImplMixin
@@ -16,8 +15,9 @@ public abstract class TLAplusSetComprehensionMapImplMixin
     }
 
     @Override
-    public @NotNull Stream<TLAplusNamedElement> localDefinitions(
-            @NotNull TLAplusElement placement) {
-        return getBoundNameList().stream().map(Function.identity());
+    public @NotNull TLAplusNameTable localNameTable() {
+        return CachedValuesManager.getCachedValue(this, () -> Result.create(
+                TLAplusNameTable.builder().addAll(getBoundNameList(), TLAplusNameTable.ALWAYS_VISIBLE).build(),
+                PsiModificationTracker.MODIFICATION_COUNT));
     }
 }
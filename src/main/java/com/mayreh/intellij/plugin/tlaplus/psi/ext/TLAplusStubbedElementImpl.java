@@ -0,0 +1,41 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.ext;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.extapi.psi.StubBasedPsiElementBase;
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.tree.IElementType;
+
+/**
+ * Base class of the elements which are stored in the stub tree.
+ * Behaves same as {@link TLAplusElementImpl} when the element is backed by AST.
+ */
+public abstract class TLAplusStubbedElementImpl<S extends StubElement<?>>
+        extends StubBasedPsiElementBase<S> implements TLAplusElement {
+    protected TLAplusStubbedElementImpl(@NotNull ASTNode node) {
+        super(node);
+    }
+
+    protected TLAplusStubbedElementImpl(@NotNull S stub, @NotNull IStubElementType<?, ?> nodeType) {
+        super(stub, nodeType);
+    }
+
+    protected TLAplusStubbedElementImpl(S stub, IElementType nodeType, ASTNode node) {
+        super(stub, nodeType, node);
+    }
+
+    @Override
+    @Nullable
+    public PsiElement getContext() {
+        return TLAplusElementImpl.nameContext(this);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + getElementType() + ")";
+    }
+}
@@ -0,0 +1,75 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.ext;
+
+import javax.swing.Icon;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.navigation.ItemPresentation;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.tree.IElementType;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiFactory;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusNamedElementStub;
+
+/**
+ * Same as {@link TLAplusNamedElementImpl}, but the name can be taken from the stub.
+ */
+public abstract class TLAplusStubbedNamedElementImpl
+        extends TLAplusStubbedElementImpl<TLAplusNamedElementStub> implements TLAplusNamedElement {
+    protected TLAplusStubbedNamedElementImpl(@NotNull ASTNode node) {
+        super(node);
+    }
+
+    protected TLAplusStubbedNamedElementImpl(@NotNull TLAplusNamedElementStub stub,
+                                             @NotNull IStubElementType<?, ?> nodeType) {
+        super(stub, nodeType);
+    }
+
+    protected TLAplusStubbedNamedElementImpl(TLAplusNamedElementStub stub, IElementType nodeType, ASTNode node) {
+        super(stub, nodeType, node);
+    }
+
+    @Override
+    public @Nullable PsiElement getNameIdentifier() {
+        return findChildByType(TLAplusElementTypes.IDENTIFIER);
+    }
+
+    @Override
+    public PsiElement setName(@NotNull String name) {
+        PsiElement identifier = getNameIdentifier();
+        if (identifier != null) {
+            identifier.replace(new TLAplusPsiFactory(getProject()).createIdentifier(name));
+        }
+        return this;
+    }
+
+    @Override
+    public int getTextOffset() {
+        PsiElement identifier = getNameIdentifier();
+        return identifier != null ? identifier.getTextOffset() : super.getTextOffset();
+    }
+
+    @Override
+    public String getName() {
+        TLAplusNamedElementStub stub = getGreenStub();
+        if (stub != null) {
+            return stub.getName();
+        }
+        PsiElement identifier = getNameIdentifier();
+        return identifier != null ? identifier.getText() : super.getName();
+    }
+
+    @Override
+    public ItemPresentation getPresentation() {
+        return new TLAplusNamedElementPresentation(this);
+    }
+
+    @Override
+    protected @Nullable Icon getElementIcon(int flags) {
+        return TLAplusNamedElementPresentation.icon(this);
+    }
+}
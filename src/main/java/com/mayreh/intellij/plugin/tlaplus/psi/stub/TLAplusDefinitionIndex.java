@@ -0,0 +1,26 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.stub;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndexKey;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+
+/**
+ * Index from name to the module headers and module-level declarations and definitions of the name.
+ */
+public class TLAplusDefinitionIndex extends StringStubIndexExtension<TLAplusNamedElement> {
+    public static final StubIndexKey<String, TLAplusNamedElement> KEY =
+            StubIndexKey.createIndexKey("tlaplus.definition.name");
+    private static final int VERSION = 1;
+
+    @Override
+    public int getVersion() {
+        return super.getVersion() + VERSION;
+    }
+
+    @Override
+    public @NotNull StubIndexKey<String, TLAplusNamedElement> getKey() {
+        return KEY;
+    }
+}
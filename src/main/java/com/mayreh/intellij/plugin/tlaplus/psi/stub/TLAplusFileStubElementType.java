@@ -0,0 +1,26 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.stub;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.psi.stubs.PsiFileStub;
+import com.intellij.psi.tree.IStubFileElementType;
+import com.mayreh.intellij.plugin.tlaplus.TLAplusFile;
+import com.mayreh.intellij.plugin.tlaplus.TLAplusLanguage;
+
+public class TLAplusFileStubElementType extends IStubFileElementType<PsiFileStub<TLAplusFile>> {
+    private static final int STUB_VERSION = 1;
+
+    public TLAplusFileStubElementType() {
+        super(TLAplusLanguage.INSTANCE);
+    }
+
+    @Override
+    public int getStubVersion() {
+        return STUB_VERSION;
+    }
+
+    @Override
+    public @NotNull String getExternalId() {
+        return TLAplusStubElementType.EXTERNAL_ID_PREFIX + "FILE";
+    }
+}
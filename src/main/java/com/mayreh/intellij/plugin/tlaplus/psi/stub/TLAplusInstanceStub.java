@@ -0,0 +1,34 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.stub;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.stubs.StubBase;
+import com.intellij.psi.stubs.StubElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusInstance;
+
+/**
+ * Stub of module-level INSTANCE declaration.
+ */
+public class TLAplusInstanceStub extends StubBase<TLAplusInstance> {
+    private final @Nullable String moduleName;
+    private final boolean local;
+
+    public TLAplusInstanceStub(StubElement<?> parent,
+                               @NotNull IStubElementType<?, ?> elementType,
+                               @Nullable String moduleName,
+                               boolean local) {
+        super(parent, elementType);
+        this.moduleName = moduleName;
+        this.local = local;
+    }
+
+    public @Nullable String moduleName() {
+        return moduleName;
+    }
+
+    public boolean isLocal() {
+        return local;
+    }
+}
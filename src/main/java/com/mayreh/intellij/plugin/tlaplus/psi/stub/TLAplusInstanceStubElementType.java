@@ -0,0 +1,52 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.stub;
+
+import java.io.IOException;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.stubs.StubInputStream;
+import com.intellij.psi.stubs.StubOutputStream;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusInstance;
+import com.mayreh.intellij.plugin.tlaplus.psi.impl.TLAplusInstanceImpl;
+
+/**
+ * Element type of INSTANCE declaration.
+ * Only module-level declarations (i.e. not the right-hand side of module definitions) are stubbed.
+ */
+public class TLAplusInstanceStubElementType extends TLAplusStubElementType<TLAplusInstanceStub, TLAplusInstance> {
+    public TLAplusInstanceStubElementType(@NotNull String debugName) {
+        super(debugName);
+    }
+
+    @Override
+    public TLAplusInstance createPsi(@NotNull TLAplusInstanceStub stub) {
+        return new TLAplusInstanceImpl(stub, this);
+    }
+
+    @Override
+    public boolean shouldCreateStub(ASTNode node) {
+        return isModuleLevel(node);
+    }
+
+    @Override
+    public @NotNull TLAplusInstanceStub createStub(@NotNull TLAplusInstance psi, StubElement<?> parentStub) {
+        return new TLAplusInstanceStub(parentStub, this, psi.instantiatedModuleName(), psi.isLocal());
+    }
+
+    @Override
+    public void serialize(@NotNull TLAplusInstanceStub stub,
+                          @NotNull StubOutputStream dataStream) throws IOException {
+        dataStream.writeName(stub.moduleName());
+        dataStream.writeBoolean(stub.isLocal());
+    }
+
+    @Override
+    public @NotNull TLAplusInstanceStub deserialize(@NotNull StubInputStream dataStream,
+                                                   StubElement parentStub) throws IOException {
+        String moduleName = dataStream.readNameString();
+        boolean local = dataStream.readBoolean();
+        return new TLAplusInstanceStub(parentStub, this, moduleName, local);
+    }
+}
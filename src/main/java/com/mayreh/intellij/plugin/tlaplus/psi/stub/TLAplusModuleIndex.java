@@ -0,0 +1,56 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.stub;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.stubs.StubIndexKey;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModule;
+
+/**
+ * Index from module name to the top-level module of the file.
+ */
+public class TLAplusModuleIndex extends StringStubIndexExtension<TLAplusModule> {
+    public static final StubIndexKey<String, TLAplusModule> KEY =
+            StubIndexKey.createIndexKey("tlaplus.module.name");
+    private static final int VERSION = 1;
+
+    @Override
+    public int getVersion() {
+        return super.getVersion() + VERSION;
+    }
+
+    @Override
+    public @NotNull StubIndexKey<String, TLAplusModule> getKey() {
+        return KEY;
+    }
+
+    public static @NotNull Stream<TLAplusModule> find(@NotNull Project project,
+                                                      @NotNull String moduleName,
+                                                      @NotNull GlobalSearchScope scope) {
+        return StubIndex.getElements(KEY, moduleName, project, scope, TLAplusModule.class).stream();
+    }
+
+    /**
+     * Returns the modules in the scope whose name matches the filter.
+     */
+    public static @NotNull Stream<TLAplusModule> findAll(@NotNull Project project,
+                                                         @NotNull GlobalSearchScope scope,
+                                                         @NotNull Predicate<String> nameFilter) {
+        List<String> moduleNames = new ArrayList<>();
+        StubIndex.getInstance().processAllKeys(KEY, moduleName -> {
+            if (nameFilter.test(moduleName)) {
+                moduleNames.add(moduleName);
+            }
+            return true;
+        }, scope, null);
+        return moduleNames.stream().flatMap(moduleName -> find(project, moduleName, scope));
+    }
+}
@@ -0,0 +1,40 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.stub;
+
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.stubs.StubBase;
+import com.intellij.psi.stubs.StubElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModule;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusNamedElementStub.Kind;
+
+public class TLAplusModuleStub extends StubBase<TLAplusModule> {
+    private final List<String> extendedModuleNames;
+
+    public TLAplusModuleStub(StubElement<?> parent,
+                             @NotNull IStubElementType<?, ?> elementType,
+                             @NotNull List<String> extendedModuleNames) {
+        super(parent, elementType);
+        this.extendedModuleNames = extendedModuleNames;
+    }
+
+    public @Nullable String moduleName() {
+        for (StubElement<?> child : getChildrenStubs()) {
+            if (child instanceof TLAplusNamedElementStub &&
+                ((TLAplusNamedElementStub) child).kind() == Kind.MODULE) {
+                return ((TLAplusNamedElementStub) child).getName();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Names of the modules listed in EXTENDS.
+     */
+    public @NotNull List<String> extendedModuleNames() {
+        return extendedModuleNames;
+    }
+}
@@ -0,0 +1,66 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.stub;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.psi.stubs.IndexSink;
+import com.intellij.psi.stubs.PsiFileStub;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.stubs.StubInputStream;
+import com.intellij.psi.stubs.StubOutputStream;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModule;
+import com.mayreh.intellij.plugin.tlaplus.psi.ext.TLAplusReferenceElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.impl.TLAplusModuleImpl;
+
+public class TLAplusModuleStubElementType extends TLAplusStubElementType<TLAplusModuleStub, TLAplusModule> {
+    public TLAplusModuleStubElementType(@NotNull String debugName) {
+        super(debugName);
+    }
+
+    @Override
+    public TLAplusModule createPsi(@NotNull TLAplusModuleStub stub) {
+        return new TLAplusModuleImpl(stub, this);
+    }
+
+    @Override
+    public @NotNull TLAplusModuleStub createStub(@NotNull TLAplusModule psi, StubElement<?> parentStub) {
+        List<String> extendedModuleNames = psi.getModuleRefList()
+                                              .stream()
+                                              .map(TLAplusReferenceElement::getReferenceName)
+                                              .collect(Collectors.toList());
+        return new TLAplusModuleStub(parentStub, this, extendedModuleNames);
+    }
+
+    @Override
+    public void indexStub(@NotNull TLAplusModuleStub stub, @NotNull IndexSink sink) {
+        // only top-level modules can be referred from other files
+        String moduleName = stub.moduleName();
+        if (stub.getParentStub() instanceof PsiFileStub && moduleName != null) {
+            sink.occurrence(TLAplusModuleIndex.KEY, moduleName);
+        }
+    }
+
+    @Override
+    public void serialize(@NotNull TLAplusModuleStub stub,
+                          @NotNull StubOutputStream dataStream) throws IOException {
+        dataStream.writeVarInt(stub.extendedModuleNames().size());
+        for (String name : stub.extendedModuleNames()) {
+            dataStream.writeName(name);
+        }
+    }
+
+    @Override
+    public @NotNull TLAplusModuleStub deserialize(@NotNull StubInputStream dataStream,
+                                                 StubElement parentStub) throws IOException {
+        int size = dataStream.readVarInt();
+        List<String> extendedModuleNames = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            extendedModuleNames.add(dataStream.readNameString());
+        }
+        return new TLAplusModuleStub(parentStub, this, extendedModuleNames);
+    }
+}
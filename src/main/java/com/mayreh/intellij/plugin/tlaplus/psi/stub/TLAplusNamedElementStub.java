@@ -0,0 +1,61 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.stub;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.stubs.NamedStubBase;
+import com.intellij.psi.stubs.StubElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+
+/**
+ * Stub of the name of a module-level definition (or a module header).
+ */
+public class TLAplusNamedElementStub extends NamedStubBase<TLAplusNamedElement> {
+    /**
+     * Kinds of named elements.
+     * Declared in the order in which module definitions are looked up.
+     */
+    public enum Kind {
+        VARIABLE,
+        CONSTANT,
+        OPERATOR,
+        FUNCTION,
+        MODULE_DEFINITION,
+        MODULE,
+    }
+
+    private final Kind kind;
+    private final boolean local;
+    private final int arity;
+
+    public TLAplusNamedElementStub(StubElement<?> parent,
+                                   @NotNull IStubElementType<?, ?> elementType,
+                                   @Nullable String name,
+                                   @NotNull Kind kind,
+                                   boolean local,
+                                   int arity) {
+        super(parent, elementType, name);
+        this.kind = kind;
+        this.local = local;
+        this.arity = arity;
+    }
+
+    public @NotNull Kind kind() {
+        return kind;
+    }
+
+    /**
+     * Returns true if the definition is declared with LOCAL.
+     */
+    public boolean isLocal() {
+        return local;
+    }
+
+    /**
+     * Number of arguments that the definition takes.
+     */
+    public int arity() {
+        return arity;
+    }
+}
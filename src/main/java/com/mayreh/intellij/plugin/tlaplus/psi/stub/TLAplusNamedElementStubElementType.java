@@ -0,0 +1,146 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.stub;
+
+import java.io.IOException;
+import java.util.function.BiFunction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.stubs.IndexSink;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.stubs.StubInputStream;
+import com.intellij.psi.stubs.StubOutputStream;
+import com.intellij.psi.tree.IElementType;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusPsiUtils;
+import com.mayreh.intellij.plugin.tlaplus.psi.ext.TLAplusElement;
+import com.mayreh.intellij.plugin.tlaplus.psi.stub.TLAplusNamedElementStub.Kind;
+
+/**
+ * Element type of names which are visible from other modules,
+ * i.e. module header and names of module-level declarations and definitions.
+ * Names of definitions inside LET or PlusCal define block are not stubbed.
+ */
+public class TLAplusNamedElementStubElementType
+        extends TLAplusStubElementType<TLAplusNamedElementStub, TLAplusNamedElement> {
+    private final BiFunction<TLAplusNamedElementStub, IStubElementType<?, ?>, TLAplusNamedElement> psiFactory;
+
+    public TLAplusNamedElementStubElementType(
+            @NotNull String debugName,
+            @NotNull BiFunction<TLAplusNamedElementStub, IStubElementType<?, ?>, TLAplusNamedElement> psiFactory) {
+        super(debugName);
+        this.psiFactory = psiFactory;
+    }
+
+    @Override
+    public TLAplusNamedElement createPsi(@NotNull TLAplusNamedElementStub stub) {
+        return psiFactory.apply(stub, this);
+    }
+
+    @Override
+    public boolean shouldCreateStub(ASTNode node) {
+        return kind(node) != null;
+    }
+
+    @Override
+    public @NotNull TLAplusNamedElementStub createStub(@NotNull TLAplusNamedElement psi,
+                                                      StubElement<?> parentStub) {
+        ASTNode node = psi.getNode();
+        Kind kind = kind(node);
+        if (kind == null) {
+            throw new IllegalStateException("Stub shouldn't be created for " + node);
+        }
+        ASTNode parent = node.getTreeParent();
+
+        boolean local = false;
+        switch (kind) {
+            case OPERATOR:
+            case MODULE_DEFINITION:
+                local = isLocal(parent.getTreeParent());
+                break;
+            case FUNCTION:
+                local = isLocal(parent);
+                break;
+            default:
+                break;
+        }
+        int arity = TLAplusPsiUtils.arity(node);
+        return new TLAplusNamedElementStub(parentStub, this, psi.getName(), kind, local, arity);
+    }
+
+    @Override
+    public void indexStub(@NotNull TLAplusNamedElementStub stub, @NotNull IndexSink sink) {
+        String name = stub.getName();
+        if (name != null) {
+            sink.occurrence(TLAplusDefinitionIndex.KEY, name);
+        }
+    }
+
+    @Override
+    public void serialize(@NotNull TLAplusNamedElementStub stub,
+                          @NotNull StubOutputStream dataStream) throws IOException {
+        dataStream.writeName(stub.getName());
+        dataStream.writeVarInt(stub.kind().ordinal());
+        dataStream.writeBoolean(stub.isLocal());
+        dataStream.writeVarInt(stub.arity());
+    }
+
+    @Override
+    public @NotNull TLAplusNamedElementStub deserialize(@NotNull StubInputStream dataStream,
+                                                       StubElement parentStub) throws IOException {
+        String name = dataStream.readNameString();
+        Kind kind = Kind.values()[dataStream.readVarInt()];
+        boolean local = dataStream.readBoolean();
+        int arity = dataStream.readVarInt();
+        return new TLAplusNamedElementStub(parentStub, this, name, kind, local, arity);
+    }
+
+    /**
+     * Returns the kind of the name, or null if the name isn't visible from other modules.
+     */
+    public static @Nullable Kind kind(@NotNull ASTNode node) {
+        IElementType type = node.getElementType();
+        if (type == TLAplusElementTypes.MODULE_HEADER) {
+            return Kind.MODULE;
+        }
+
+        ASTNode parent = node.getTreeParent();
+        if (parent == null) {
+            return null;
+        }
+        if (type == TLAplusElementTypes.VARIABLE_NAME) {
+            return isModuleLevel(parent) ? Kind.VARIABLE : null;
+        }
+        if (type == TLAplusElementTypes.OP_NAME) {
+            ASTNode decl = parent.getTreeParent();
+            if (decl != null && decl.getElementType() == TLAplusElementTypes.CONSTANT_DECL && isModuleLevel(decl)) {
+                return Kind.CONSTANT;
+            }
+            return null;
+        }
+        if (type == TLAplusElementTypes.NONFIX_LHS_NAME) {
+            ASTNode definition = parent.getTreeParent();
+            if (definition == null || !isModuleLevel(definition)) {
+                return null;
+            }
+            if (definition.getElementType() == TLAplusElementTypes.OP_DEFINITION) {
+                return Kind.OPERATOR;
+            }
+            if (definition.getElementType() == TLAplusElementTypes.MODULE_DEFINITION) {
+                return Kind.MODULE_DEFINITION;
+            }
+            return null;
+        }
+        if (type == TLAplusElementTypes.FUNC_NAME) {
+            return isModuleLevel(parent) ? Kind.FUNCTION : null;
+        }
+        return null;
+    }
+
+    private static boolean isLocal(@NotNull ASTNode definition) {
+        return TLAplusPsiUtils.isLocal((TLAplusElement) definition.getPsi());
+    }
+}
@@ -0,0 +1,80 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.stub;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndex.InputFilter;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.indexing.ScalarIndexExtension;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.mayreh.intellij.plugin.tlaplus.TLAplusFileType;
+import com.mayreh.intellij.plugin.tlaplus.psi.ext.TLAplusReferenceElement;
+
+/**
+ * Index from referenced name to the files which contain references of the name.
+ *
+ * Used to narrow down the modules which may refer to a definition, so that only those modules are resolved
+ * instead of every module in the project.
+ * As references are indexed by name, files may contain references of the same name to other definitions.
+ */
+public class TLAplusReferencedNameIndex extends ScalarIndexExtension<String> {
+    public static final ID<String, Void> NAME = ID.create("tlaplus.referenced.name");
+    private static final int VERSION = 1;
+
+    @Override
+    public @NotNull ID<String, Void> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, Void, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, Void> names = new HashMap<>();
+            PsiTreeUtil.processElements(inputData.getPsiFile(), element -> {
+                if (element instanceof TLAplusReferenceElement) {
+                    names.put(((TLAplusReferenceElement) element).getReferenceName(), null);
+                }
+                return true;
+            });
+            return names;
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public @NotNull InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(TLAplusFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Returns the files in the scope which contain references of the name.
+     */
+    public static @NotNull Collection<VirtualFile> findFiles(@NotNull String name, @NotNull GlobalSearchScope scope) {
+        return FileBasedIndex.getInstance().getContainingFiles(NAME, name, scope);
+    }
+}
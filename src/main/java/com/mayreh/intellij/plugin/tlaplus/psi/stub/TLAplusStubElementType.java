@@ -0,0 +1,40 @@
+package com.mayreh.intellij.plugin.tlaplus.psi.stub;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.stubs.IndexSink;
+import com.intellij.psi.stubs.StubElement;
+import com.mayreh.intellij.plugin.tlaplus.TLAplusLanguage;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes;
+
+/**
+ * Base class of TLA+ element types which are stored in the stub tree.
+ */
+public abstract class TLAplusStubElementType<S extends StubElement<?>, P extends PsiElement>
+        extends IStubElementType<S, P> {
+    public static final String EXTERNAL_ID_PREFIX = "tlaplus.";
+
+    protected TLAplusStubElementType(@NotNull String debugName) {
+        super(debugName, TLAplusLanguage.INSTANCE);
+    }
+
+    @Override
+    public @NotNull String getExternalId() {
+        return EXTERNAL_ID_PREFIX + this;
+    }
+
+    @Override
+    public void indexStub(@NotNull S stub, @NotNull IndexSink sink) {
+    }
+
+    /**
+     * Returns true if the node is a direct child of a module, i.e. not inside LET or PlusCal define block.
+     */
+    static boolean isModuleLevel(@NotNull ASTNode node) {
+        ASTNode parent = node.getTreeParent();
+        return parent != null && parent.getElementType() == TLAplusElementTypes.MODULE;
+    }
+}
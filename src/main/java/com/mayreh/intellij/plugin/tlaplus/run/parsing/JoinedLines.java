@@ -0,0 +1,87 @@
+package com.mayreh.intellij.plugin.tlaplus.run.parsing;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Read-only view of lines joined by the separator.
+ * Used to run regex over the payload of a multi-line message without copying lines into a new string.
+ */
+final class JoinedLines implements CharSequence {
+    private final List<String> lines;
+    private final String separator;
+    // start offset of each line in the view
+    private final int[] starts;
+    private final int length;
+    // index of the line which was accessed last, as regex reads characters mostly sequentially
+    private int current;
+
+    JoinedLines(@NotNull List<String> lines, @NotNull String separator) {
+        this.lines = lines;
+        this.separator = separator;
+        starts = new int[lines.size()];
+        int offset = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) {
+                offset += separator.length();
+            }
+            starts[i] = offset;
+            offset += lines.get(i).length();
+        }
+        length = offset;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        if (!inLine(current, index)) {
+            current = findLine(index);
+        }
+        int offset = index - starts[current];
+        String line = lines.get(current);
+        return offset < line.length() ? line.charAt(offset) : separator.charAt(offset - line.length());
+    }
+
+    @Override
+    public @NotNull CharSequence subSequence(int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            sb.append(charAt(i));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return String.join(separator, lines);
+    }
+
+    /**
+     * Returns true if the index points the line or the separator following it.
+     */
+    private boolean inLine(int lineIndex, int index) {
+        int end = lineIndex + 1 < starts.length ? starts[lineIndex + 1] : length;
+        return starts[lineIndex] <= index && index < end;
+    }
+
+    private int findLine(int index) {
+        int i = Arrays.binarySearch(starts, index);
+        if (i < 0) {
+            i = -i - 2;
+        }
+        // skip empty lines which start at same offset
+        while (!inLine(i, index)) {
+            i++;
+        }
+        return i;
+    }
+}
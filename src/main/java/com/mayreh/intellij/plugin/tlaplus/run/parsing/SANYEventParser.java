@@ -2,7 +2,6 @@ package com.mayreh.intellij.plugin.tlaplus.run.parsing;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.IntStream;
@@ -37,8 +36,8 @@ class SANYEventParser extends TLCEventParser {
                 }
                 return this;
             case Running:
-                Optional<TLCMessage> msg = parseStartMessage(line);
-                if (msg.isPresent() && msg.get().code() == EC.TLC_SANY_END) {
+                TLCMessage msg = parseStartMessage(line);
+                if (msg != null && msg.code() == EC.TLC_SANY_END) {
                     state = State.Ending;
                 } else {
                     sanyLines.add(line);
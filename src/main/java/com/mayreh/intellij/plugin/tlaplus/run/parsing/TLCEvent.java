@@ -68,10 +68,10 @@ public interface TLCEvent {
     @Accessors(fluent = true)
     class Progress implements TLCEvent {
         LocalDateTime timestamp;
-        int diameter;
-        int total;
-        int distinct;
-        int queueSize;
+        long diameter;
+        long total;
+        long distinct;
+        long queueSize;
     }
 
     @Value
@@ -91,8 +91,8 @@ public interface TLCEvent {
     class CoverageItem {
         String module;
         String action;
-        int total;
-        int distinct;
+        long total;
+        long distinct;
         Range<SourceLocation> range;
     }
 
@@ -13,6 +13,8 @@ import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.jetbrains.annotations.Nullable;
+
 import com.intellij.util.Range;
 import com.mayreh.intellij.plugin.tlaplus.run.parsing.TLCEvent.CheckingLiveness;
 import com.mayreh.intellij.plugin.tlaplus.run.parsing.TLCEvent.CheckingLivenessFinal;
@@ -31,8 +33,6 @@ import tlc2.output.EC;
 import tlc2.output.MP;
 
 public abstract class TLCEventParser {
-    private static final Pattern STARTMSG_PATTERN = Pattern.compile("@!@!@STARTMSG (\\d+)(:\\d+)? @!@!@");
-    private static final Pattern ENDMSG_PATTERN = Pattern.compile("@!@!@ENDMSG .* @!@!@");
     private static final Pattern DATETIME_PATTERN = Pattern.compile("(\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2})");
     private static final Pattern SUCCESS_PATTERN = Pattern.compile("calculated \\(optimistic\\):\\s+val = ([-+.0-9Ee]+)");
     private static final Pattern FINISH_PATTERN = Pattern.compile("Finished in (\\d+)ms at \\((\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2})\\)");
@@ -70,22 +70,12 @@ public abstract class TLCEventParser {
         this.listener = listener;
     }
 
-    protected Optional<TLCMessage> parseStartMessage(String line) {
-        Matcher matcher = STARTMSG_PATTERN.matcher(line);
-        if (matcher.find()) {
-            int code = Integer.valueOf(matcher.group(1));
-            Integer severity = null;
-            if (matcher.group(2) != null) {
-                severity = Integer.valueOf(matcher.group(2).substring(1));
-            }
-            return Optional.of(new TLCMessage(code, severity));
-        }
-        return Optional.empty();
+    protected @Nullable TLCMessage parseStartMessage(String line) {
+        return TLCMessageFraming.parseStart(line);
     }
 
     protected boolean parseEndMessage(String line) {
-        Matcher matcher = ENDMSG_PATTERN.matcher(line);
-        return matcher.find();
+        return TLCMessageFraming.isEnd(line);
     }
 
     static class Default extends TLCEventParser {
@@ -95,74 +85,74 @@ public abstract class TLCEventParser {
 
         @Override
         public TLCEventParser addLine(String line) {
-            return parseStartMessage(line).map(msg -> {
-                if (interestedSeverities.contains(msg.severity()) &&
-                    !ignorableCodes.contains(msg.code())) {
-                    return new MultilineTextParser<>(
-                            // unboxing msg.severity() here is safe because non-null is ensured by
-                            // `interestedSeverities.contains(msg.severity())` above
-                            listener, lines -> Optional.of(ErrorParser.parse(msg.severity(), lines)));
-                }
-                switch (msg.code()) {
-                    case EC.TLC_MODE_MC:
-                        return new MultilineTextParser<>(listener, lines -> Optional.of(new MC(lines)));
-                    case EC.TLC_SANY_START:
-                        return new SANYEventParser(listener);
-                    case EC.TLC_STARTING:
-                        return new MultilineTextParser<>(
-                                listener, lines -> maybeMatch(DATETIME_PATTERN, String.join(" ", lines))
-                                .map(matcher -> new TLCStart(
-                                        LocalDateTime.parse(matcher.group(1), DATETIME_FORMAT))));
-                    case EC.TLC_CHECKPOINT_START:
-                        return new MultilineTextParser<>(
-                                listener, ignore -> Optional.of(CheckpointStart.INSTANCE));
-                    case EC.TLC_COMPUTING_INIT:
-                    case EC.TLC_COMPUTING_INIT_PROGRESS:
-                        return new MultilineTextParser<>(
-                                listener, ignore -> Optional.of(InitialStatesComputing.INSTANCE));
-                    case EC.TLC_INIT_GENERATED1:
-                    case EC.TLC_INIT_GENERATED2:
-                    case EC.TLC_INIT_GENERATED3:
-                    case EC.TLC_INIT_GENERATED4:
-                        return new MultilineTextParser<>(listener, ProgressParser::parseInit);
-                    case EC.TLC_CHECKING_TEMPORAL_PROPS:
-                        return new MultilineTextParser<>(listener, lines -> {
-                            if (String.join(" ", lines).contains("complete")) {
-                                return Optional.of(CheckingLivenessFinal.INSTANCE);
-                            }
-                            return Optional.of(CheckingLiveness.INSTANCE);
-                        });
-                    case EC.TLC_PROGRESS_STATS:
-                        return new MultilineTextParser<>(listener, ProgressParser::parse);
-                    case EC.TLC_COVERAGE_INIT:
-                        return new MultilineTextParser<>(
-                                listener, lines -> CoverageItemParser.parse(lines).map(CoverageInit::new));
-                    case EC.TLC_COVERAGE_NEXT:
-                        return new MultilineTextParser<>(
-                                listener, lines -> CoverageItemParser.parse(lines).map(CoverageNext::new));
-                    case EC.TLC_STATE_PRINT1:
-                    case EC.TLC_STATE_PRINT2:
-                    case EC.TLC_STATE_PRINT3:
-                    case EC.TLC_BACK_TO_STATE:
-                        return new MultilineTextParser<>(
-                                listener, lines -> new TLCErrorTraceParser().parse(lines));
-                    case EC.TLC_SUCCESS:
-                        return new MultilineTextParser<>(
-                                listener, lines -> maybeMatch(SUCCESS_PATTERN, String.join(" ", lines))
-                                .map(matcher -> new TLCSuccess(Double.valueOf(matcher.group(1)))));
-                    case EC.TLC_FINISHED:
-                        return new MultilineTextParser<>(
-                                listener, lines -> maybeMatch(FINISH_PATTERN, String.join(" ", lines))
-                                .map(matcher -> new TLCFinished(
-                                        Duration.ofMillis(Long.valueOf(matcher.group(1))),
-                                        LocalDateTime.parse(matcher.group(2), DATETIME_FORMAT))));
-                    default:
-                        return new Other(listener);
-                }
-            }).orElseGet(() -> {
+            TLCMessage msg = parseStartMessage(line);
+            if (msg == null) {
                 listener.onEvent(new TLCEvent.TextEvent(line));
                 return this;
-            });
+            }
+            if (interestedSeverities.contains(msg.severity()) &&
+                !ignorableCodes.contains(msg.code())) {
+                return new MultilineTextParser<>(
+                        // unboxing msg.severity() here is safe because non-null is ensured by
+                        // `interestedSeverities.contains(msg.severity())` above
+                        listener, lines -> Optional.of(ErrorParser.parse(msg.severity(), lines)));
+            }
+            switch (msg.code()) {
+                case EC.TLC_MODE_MC:
+                    return new MultilineTextParser<>(listener, lines -> Optional.of(new MC(lines)));
+                case EC.TLC_SANY_START:
+                    return new SANYEventParser(listener);
+                case EC.TLC_STARTING:
+                    return new MultilineTextParser<>(
+                            listener, lines -> maybeMatch(DATETIME_PATTERN, new JoinedLines(lines, " "))
+                            .map(matcher -> new TLCStart(
+                                    LocalDateTime.parse(matcher.group(1), DATETIME_FORMAT))));
+                case EC.TLC_CHECKPOINT_START:
+                    return new MultilineTextParser<>(
+                            listener, ignore -> Optional.of(CheckpointStart.INSTANCE));
+                case EC.TLC_COMPUTING_INIT:
+                case EC.TLC_COMPUTING_INIT_PROGRESS:
+                    return new MultilineTextParser<>(
+                            listener, ignore -> Optional.of(InitialStatesComputing.INSTANCE));
+                case EC.TLC_INIT_GENERATED1:
+                case EC.TLC_INIT_GENERATED2:
+                case EC.TLC_INIT_GENERATED3:
+                case EC.TLC_INIT_GENERATED4:
+                    return new MultilineTextParser<>(listener, ProgressParser::parseInit);
+                case EC.TLC_CHECKING_TEMPORAL_PROPS:
+                    return new MultilineTextParser<>(listener, lines -> {
+                        if (lines.stream().anyMatch(text -> text.contains("complete"))) {
+                            return Optional.of(CheckingLivenessFinal.INSTANCE);
+                        }
+                        return Optional.of(CheckingLiveness.INSTANCE);
+                    });
+                case EC.TLC_PROGRESS_STATS:
+                    return new MultilineTextParser<>(listener, ProgressParser::parse);
+                case EC.TLC_COVERAGE_INIT:
+                    return new MultilineTextParser<>(
+                            listener, lines -> CoverageItemParser.parse(lines).map(CoverageInit::new));
+                case EC.TLC_COVERAGE_NEXT:
+                    return new MultilineTextParser<>(
+                            listener, lines -> CoverageItemParser.parse(lines).map(CoverageNext::new));
+                case EC.TLC_STATE_PRINT1:
+                case EC.TLC_STATE_PRINT2:
+                case EC.TLC_STATE_PRINT3:
+                case EC.TLC_BACK_TO_STATE:
+                    return new MultilineTextParser<>(
+                            listener, lines -> new TLCErrorTraceParser().parse(lines));
+                case EC.TLC_SUCCESS:
+                    return new MultilineTextParser<>(
+                            listener, lines -> maybeMatch(SUCCESS_PATTERN, new JoinedLines(lines, " "))
+                            .map(matcher -> new TLCSuccess(Double.valueOf(matcher.group(1)))));
+                case EC.TLC_FINISHED:
+                    return new MultilineTextParser<>(
+                            listener, lines -> maybeMatch(FINISH_PATTERN, new JoinedLines(lines, " "))
+                            .map(matcher -> new TLCFinished(
+                                    Duration.ofMillis(Long.valueOf(matcher.group(1))),
+                                    LocalDateTime.parse(matcher.group(2), DATETIME_FORMAT))));
+                default:
+                    return new Other(listener);
+            }
         }
     }
 
@@ -230,25 +220,25 @@ public abstract class TLCEventParser {
 
     private static class ProgressParser {
         private static final Pattern INIT_PATTERN = Pattern.compile(
-                "Finished computing initial states: (\\d+) distinct states? generated at (\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}).*");
+                "Finished computing initial states: ([\\d,]+) distinct states? generated at (\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}).*");
         private static final Pattern PATTERN = Pattern.compile(
                 "Progress\\(([\\d,]+)\\) at (\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}): ([\\d,]+) states generated.*, ([\\d,]+) distinct states found.*, ([\\d,]+) states left on queue.*");
 
         static Optional<TLCEvent.Progress> parseInit(List<String> lines) {
-            return maybeMatch(INIT_PATTERN, String.join("", lines)).map(matcher -> {
-                int count = toInt(matcher.group(1));
+            return maybeMatch(INIT_PATTERN, new JoinedLines(lines, "")).map(matcher -> {
+                long count = toLong(matcher.group(1));
                 LocalDateTime timestamp = LocalDateTime.parse(matcher.group(2), DATETIME_FORMAT);
                 return new TLCEvent.Progress(timestamp, 0, count, count, count);
             });
         }
 
         static Optional<TLCEvent.Progress> parse(List<String> lines) {
-            return maybeMatch(PATTERN, String.join("", lines)).map(matcher -> {
+            return maybeMatch(PATTERN, new JoinedLines(lines, "")).map(matcher -> {
                 LocalDateTime timestamp = LocalDateTime.parse(matcher.group(2), DATETIME_FORMAT);
-                int diameter = toInt(matcher.group(1));
-                int total = toInt(matcher.group(3));
-                int distinct = toInt(matcher.group(4));
-                int queueSize = toInt(matcher.group(5));
+                long diameter = toLong(matcher.group(1));
+                long total = toLong(matcher.group(3));
+                long distinct = toLong(matcher.group(4));
+                long queueSize = toLong(matcher.group(5));
                 return new TLCEvent.Progress(timestamp, diameter, total, distinct, queueSize);
             });
         }
@@ -259,7 +249,7 @@ public abstract class TLCEventParser {
                 "<(\\w+) line (\\d+), col (\\d+) to line (\\d+), col (\\d+) of module (\\w+)>: (\\d+):(\\d+)");
 
         static Optional<TLCEvent.CoverageItem> parse(List<String> lines) {
-            return maybeMatch(PATTERN, String.join("", lines)).map(matcher -> {
+            return maybeMatch(PATTERN, new JoinedLines(lines, "")).map(matcher -> {
                 String moduleName = matcher.group(6);
                 String actionName = matcher.group(1);
 
@@ -270,8 +260,8 @@ public abstract class TLCEventParser {
                 SourceLocation endExclusive = new SourceLocation(
                         toInt(matcher.group(4)) - 1, toInt(matcher.group(5)));
 
-                int distinct = toInt(matcher.group(7));
-                int total = toInt(matcher.group(8));
+                long distinct = toLong(matcher.group(7));
+                long total = toLong(matcher.group(8));
                 return new TLCEvent.CoverageItem(
                         moduleName, actionName, total, distinct, new Range<>(start, endExclusive));
             });
@@ -307,7 +297,7 @@ public abstract class TLCEventParser {
         }
     }
 
-    private static Optional<Matcher> maybeMatch(Pattern pattern, String input) {
+    private static Optional<Matcher> maybeMatch(Pattern pattern, CharSequence input) {
         Matcher matcher = pattern.matcher(input);
         if (matcher.find()) {
             return Optional.of(matcher);
@@ -319,4 +309,11 @@ public abstract class TLCEventParser {
     private static int toInt(String s) {
         return Integer.parseInt(s.replace(",", ""));
     }
+
+    /**
+     * For state counts, which exceed int range in large models.
+     */
+    private static long toLong(String s) {
+        return Long.parseLong(s.replace(",", ""));
+    }
 }
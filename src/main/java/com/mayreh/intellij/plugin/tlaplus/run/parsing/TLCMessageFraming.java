@@ -0,0 +1,108 @@
+package com.mayreh.intellij.plugin.tlaplus.run.parsing;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Detects the frames of TLC messages, i.e. "@!@!@STARTMSG code[:severity] @!@!@" and "@!@!@ENDMSG code @!@!@".
+ *
+ * Every line of TLC output is checked, so markers are found by plain string search
+ * and codes are parsed by hand instead of regex.
+ */
+final class TLCMessageFraming {
+    private static final String MARKER = "@!@!@";
+    private static final String START_MARKER = MARKER + "STARTMSG ";
+    private static final String END_MARKER = MARKER + "ENDMSG ";
+    private static final String CLOSING_MARKER = " " + MARKER;
+    // codes and severities are small numbers, so more digits can't be a message
+    private static final int MAX_DIGITS = 9;
+
+    private TLCMessageFraming() {
+    }
+
+    /**
+     * Returns the message if the line contains the start marker, otherwise null.
+     */
+    static @Nullable TLCMessage parseStart(@NotNull CharSequence line) {
+        int start = indexOf(line, START_MARKER, 0);
+        if (start < 0) {
+            return null;
+        }
+        int codeStart = start + START_MARKER.length();
+        int codeEnd = skipDigits(line, codeStart);
+        if (codeEnd == codeStart || codeEnd - codeStart > MAX_DIGITS) {
+            return null;
+        }
+
+        Integer severity = null;
+        int end = codeEnd;
+        if (end < line.length() && line.charAt(end) == ':') {
+            int severityEnd = skipDigits(line, end + 1);
+            if (severityEnd == end + 1 || severityEnd - end - 1 > MAX_DIGITS) {
+                return null;
+            }
+            severity = parseInt(line, end + 1, severityEnd);
+            end = severityEnd;
+        }
+        if (!regionMatches(line, end, CLOSING_MARKER)) {
+            return null;
+        }
+        return new TLCMessage(parseInt(line, codeStart, codeEnd), severity);
+    }
+
+    /**
+     * Returns true if the line contains the end marker.
+     */
+    static boolean isEnd(@NotNull CharSequence line) {
+        int start = indexOf(line, END_MARKER, 0);
+        return start >= 0 && indexOf(line, CLOSING_MARKER, start + END_MARKER.length()) >= 0;
+    }
+
+    private static int indexOf(@NotNull CharSequence s, @NotNull String target, int from) {
+        if (s instanceof String) {
+            return ((String) s).indexOf(target, from);
+        }
+        char first = target.charAt(0);
+        for (int i = from; i <= s.length() - target.length(); i++) {
+            if (s.charAt(i) == first && regionMatches(s, i, target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(@NotNull CharSequence s, int offset, @NotNull String target) {
+        if (offset + target.length() > s.length()) {
+            return false;
+        }
+        if (s instanceof String) {
+            return ((String) s).startsWith(target, offset);
+        }
+        for (int i = 0; i < target.length(); i++) {
+            if (s.charAt(offset + i) != target.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipDigits(@NotNull CharSequence s, int from) {
+        int i = from;
+        while (i < s.length() && isDigit(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int parseInt(@NotNull CharSequence s, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (s.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,65 @@
+package com.mayreh.intellij.plugin.tlaplus.run.parsing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reassembles lines from chunks of process output, which may end in the middle of a line
+ * or contain several lines.
+ *
+ * Fragments of an incomplete line are accumulated in a single buffer, and a string is created only once
+ * per complete line. Line terminators ("\n" or "\r\n") are not included in the lines.
+ */
+public class TLCOutputLineSplitter {
+    private final StringBuilder partialLine = new StringBuilder();
+
+    /**
+     * Returns the lines completed by the chunk, in order.
+     */
+    public @NotNull List<String> feed(@NotNull CharSequence chunk) {
+        List<String> lines = null;
+        int lineStart = 0;
+        for (int i = 0; i < chunk.length(); i++) {
+            if (chunk.charAt(i) != '\n') {
+                continue;
+            }
+            if (lines == null) {
+                lines = new ArrayList<>();
+            }
+            if (partialLine.length() == 0) {
+                lines.add(stripCarriageReturn(chunk, lineStart, i).toString());
+            } else {
+                partialLine.append(chunk, lineStart, i);
+                lines.add(stripCarriageReturn(partialLine, 0, partialLine.length()).toString());
+                partialLine.setLength(0);
+            }
+            lineStart = i + 1;
+        }
+        partialLine.append(chunk, lineStart, chunk.length());
+        return lines != null ? lines : Collections.emptyList();
+    }
+
+    /**
+     * Returns the last line which isn't terminated by newline, if any.
+     * Called when the output ends.
+     */
+    public @Nullable String flush() {
+        if (partialLine.length() == 0) {
+            return null;
+        }
+        String line = stripCarriageReturn(partialLine, 0, partialLine.length()).toString();
+        partialLine.setLength(0);
+        return line;
+    }
+
+    private static @NotNull CharSequence stripCarriageReturn(@NotNull CharSequence s, int start, int end) {
+        if (end > start && s.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return s.subSequence(start, end);
+    }
+}
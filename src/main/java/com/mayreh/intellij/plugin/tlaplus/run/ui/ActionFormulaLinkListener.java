@@ -34,13 +34,11 @@ public abstract class ActionFormulaLinkListener extends MouseAdapter {
                                            .flatMap(file -> Optional.ofNullable(file.getVirtualFile()))
                                            .map(file -> Pair.pair(module, file));
                         }
-                        return module.availableModules()
-                                     .filter(m -> formula.module().equals(m.getModuleHeader().getName()))
-                                     .findFirst()
-                                     .flatMap(m -> Optional
-                                             .ofNullable(m.getContainingFile())
-                                             .flatMap(file -> Optional.ofNullable(file.getVirtualFile())))
-                                     .map(file -> Pair.pair(module, file));
+                        return Optional.ofNullable(module.findAvailableModule(formula.module()))
+                                       .flatMap(m -> Optional
+                                               .ofNullable(m.getContainingFile())
+                                               .flatMap(file -> Optional.ofNullable(file.getVirtualFile())))
+                                       .map(file -> Pair.pair(module, file));
                     })
                     .ifPresent(pair -> {
                         new OpenFileDescriptor(
@@ -20,19 +20,19 @@ import com.intellij.execution.process.ProcessListener;
 import com.intellij.execution.testframework.ui.BaseTestsOutputConsoleView;
 import com.intellij.execution.ui.ConsoleView;
 import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.icons.AllIcons;
 import com.intellij.ide.HelpIdProvider;
 import com.intellij.openapi.actionSystem.ActionManager;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
-import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.actions.ScrollToTheEndToolbarAction;
 import com.intellij.openapi.editor.actions.ToggleUseSoftWrapsToolbarAction;
 import com.intellij.openapi.editor.impl.softwrap.SoftWrapAppliancePlaces;
+import com.intellij.openapi.project.DumbAwareAction;
 import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.util.Key;
 import com.intellij.psi.search.GlobalSearchScope;
-import com.mayreh.intellij.plugin.tlaplus.run.parsing.TLCEventParser;
 
 import lombok.Getter;
 import lombok.experimental.Accessors;
@@ -44,6 +44,7 @@ public class TLCOutputConsoleView implements ConsoleView, HelpIdProvider {
     interface State {
         @NotNull State dispose();
         @NotNull State attachTo(TLCOutputConsoleView consoleView, ProcessHandler processHandler);
+        @Nullable TLCRunLog runLog();
 
         class NotRunning implements State {
             @Override
@@ -51,6 +52,11 @@ public class TLCOutputConsoleView implements ConsoleView, HelpIdProvider {
                 return this;
             }
 
+            @Override
+            public @Nullable TLCRunLog runLog() {
+                return null;
+            }
+
             @Override
             public @NotNull State attachTo(TLCOutputConsoleView consoleView, ProcessHandler processHandler) {
                 return new Running(consoleView, processHandler);
@@ -60,27 +66,21 @@ public class TLCOutputConsoleView implements ConsoleView, HelpIdProvider {
         class Running implements State {
             private final ProcessHandler processHandler;
             private final NotRunning finishedState = new NotRunning();
+            private final TLCOutputPipeline pipeline;
             private final ProcessListener listener;
 
             public Running(TLCOutputConsoleView consoleView, ProcessHandler processHandler) {
                 this.processHandler = processHandler;
+                pipeline = new TLCOutputPipeline(consoleView.resultPanel, consoleView);
                 listener = new ProcessAdapter() {
-                    private TLCEventParser currentParser = TLCEventParser.create(
-                            consoleView.resultPanel);
                     @Override
                     public void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
-                        ApplicationManager.getApplication().invokeLater(
-                                () -> {
-                                    consoleView.resultPanel.printInConsole(event.getText());
-                                    currentParser = currentParser.addLine(event.getText());
-                                });
+                        pipeline.offerText(event.getText());
                     }
 
                     @Override
                     public void processTerminated(@NotNull ProcessEvent event) {
-                        ApplicationManager.getApplication().invokeLater(
-                                () -> currentParser.notifyProcessExit(event.getExitCode()));
-
+                        pipeline.offerExit(event.getExitCode());
                     }
                 };
                 processHandler.addProcessListener(listener);
@@ -89,6 +89,7 @@ public class TLCOutputConsoleView implements ConsoleView, HelpIdProvider {
             @Override
             public @NotNull State dispose() {
                 processHandler.removeProcessListener(listener);
+                Disposer.dispose(pipeline);
                 return finishedState;
             }
 
@@ -96,6 +97,11 @@ public class TLCOutputConsoleView implements ConsoleView, HelpIdProvider {
             public @NotNull State attachTo(TLCOutputConsoleView consoleView, ProcessHandler processHandler) {
                 return dispose().attachTo(consoleView, processHandler);
             }
+
+            @Override
+            public @Nullable TLCRunLog runLog() {
+                return pipeline.runLog();
+            }
         }
     }
 
@@ -104,8 +110,10 @@ public class TLCOutputConsoleView implements ConsoleView, HelpIdProvider {
     private ConsoleViewImpl console;
     private State state = new State.NotRunning();
     private final TLCResultPanel resultPanel;
+    private final TLCTestConsoleProperties properties;
 
     public TLCOutputConsoleView(TLCTestConsoleProperties properties) {
+        this.properties = properties;
         console = new ConsoleViewImpl(
                 properties.getProject(),
                 GlobalSearchScope.allScope(properties.getProject()),
@@ -138,7 +146,7 @@ public class TLCOutputConsoleView implements ConsoleView, HelpIdProvider {
 
     @Override
     public void attachToProcess(@NotNull ProcessHandler processHandler) {
-        state.attachTo(this, processHandler);
+        state = state.attachTo(this, processHandler);
     }
 
     // We don't support pausing the console
@@ -202,6 +210,21 @@ public class TLCOutputConsoleView implements ConsoleView, HelpIdProvider {
         });
         actions.add(new ScrollToTheEndToolbarAction(console.getEditor()));
         actions.add(ActionManager.getInstance().getAction("Print"));
+        actions.add(new DumbAwareAction(
+                "Show Full Output", "Browse the whole output of the run", AllIcons.Actions.Preview) {
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(state.runLog() != null);
+            }
+
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                TLCRunLog runLog = state.runLog();
+                if (runLog != null) {
+                    new TLCRunLogDialog(properties.getProject(), runLog).show();
+                }
+            }
+        });
         actions.add(new ClearConsoleAction() {
             @Override
             public void update(@NotNull AnActionEvent e) {
@@ -0,0 +1,298 @@
+package com.mayreh.intellij.plugin.tlaplus.run.ui;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.util.Alarm.ThreadToUse;
+import com.intellij.util.ui.update.MergingUpdateQueue;
+import com.intellij.util.ui.update.Update;
+import com.mayreh.intellij.plugin.tlaplus.run.parsing.TLCEvent;
+import com.mayreh.intellij.plugin.tlaplus.run.parsing.TLCEventListener;
+import com.mayreh.intellij.plugin.tlaplus.run.parsing.TLCEventParser;
+import com.mayreh.intellij.plugin.tlaplus.run.parsing.TLCOutputLineSplitter;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * Pipeline from TLC process output to {@link TLCResultPanel}.
+ *
+ * Output is parsed on a background thread, and parsed events and console text are delivered to EDT in batches
+ * at most {@link #MAX_FRAMES_PER_SECOND} times per second.
+ * Both the queue of unparsed output and the batch waiting for EDT are bounded, so when the UI can't keep up,
+ * the thread reading the process output (and eventually TLC itself) is blocked instead of flooding EDT.
+ *
+ * The whole output is also written to {@link TLCRunLog}, and the console keeps only the last
+ * {@link #MAX_CONSOLE_LENGTH} characters or so: when the console grows beyond that, its content is replaced with
+ * the tail of the log.
+ */
+class TLCOutputPipeline implements Disposable {
+    private static final int MAX_FRAMES_PER_SECOND = 30;
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int MAX_PENDING_TEXT_LENGTH = 1024 * 1024;
+    private static final int MAX_PENDING_EVENTS = 10_000;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final int MAX_CONSOLE_LENGTH = 4 * 1024 * 1024;
+    private static final String TRIMMED_NOTICE =
+            "(Earlier output is trimmed. Use \"Show Full Output\" to browse the whole output.)\n";
+    private static final Logger LOG = Logger.getInstance(TLCOutputPipeline.class);
+
+    /**
+     * Receiver of the parsed events and console text, called on EDT.
+     */
+    interface Sink extends TLCEventListener {
+        void printInConsole(String text);
+        void clearConsole();
+    }
+
+    @Value
+    @Accessors(fluent = true)
+    private static class Output {
+        // null for the process exit
+        @Nullable String text;
+        int exitCode;
+    }
+
+    private final Sink sink;
+    private final BlockingQueue<Output> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final MergingUpdateQueue updateQueue;
+    private final Future<?> consumer;
+    private final @Nullable TLCRunLog runLog;
+    private volatile boolean disposed;
+    // accessed only from the consumer thread
+    private boolean spillFailed;
+    private long consoleLength;
+
+    // batch waiting for EDT, guarded by lock
+    private final Object lock = new Object();
+    private final StringBuilder pendingText = new StringBuilder();
+    private boolean pendingClear;
+    private List<TLCEvent> pendingEvents = new ArrayList<>();
+
+    TLCOutputPipeline(@NotNull Sink sink, @NotNull Disposable parent) {
+        this.sink = sink;
+        runLog = createRunLog();
+        Disposer.register(parent, this);
+        // batches must be delivered even while a modal dialog is shown (e.g. progress of searching the run log),
+        // otherwise the producers would be blocked until the dialog is closed
+        updateQueue = new MergingUpdateQueue(
+                "TLC Output", 1000 / MAX_FRAMES_PER_SECOND, true, MergingUpdateQueue.ANY_COMPONENT, this, null,
+                ThreadToUse.SWING_THREAD);
+        // updates must run on EDT even in tests
+        updateQueue.setPassThrough(false);
+        consumer = ApplicationManager.getApplication().executeOnPooledThread(this::consume);
+    }
+
+    /**
+     * Enqueue the output text. Blocks while the queue is full.
+     */
+    void offerText(@NotNull String text) {
+        put(new Output(text, 0));
+    }
+
+    /**
+     * Enqueue the process exit, which is notified after all preceding output is parsed.
+     */
+    void offerExit(int exitCode) {
+        put(new Output(null, exitCode));
+    }
+
+    /**
+     * Returns the log of the whole output, or null if it couldn't be created.
+     */
+    @Nullable TLCRunLog runLog() {
+        return runLog;
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        consumer.cancel(true);
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        if (runLog != null) {
+            try {
+                runLog.close();
+            } catch (IOException e) {
+                LOG.warn("Failed to delete TLC run log", e);
+            }
+        }
+    }
+
+    private static @Nullable TLCRunLog createRunLog() {
+        try {
+            return TLCRunLog.create();
+        } catch (IOException e) {
+            LOG.warn("Failed to create TLC run log. The whole output is kept in the console", e);
+            return null;
+        }
+    }
+
+    private void put(@NotNull Output output) {
+        try {
+            while (!disposed && !queue.offer(output, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                // wait until the consumer catches up
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void consume() {
+        TLCEventParser parser = TLCEventParser.create(this::addEvent);
+        // output is delivered in arbitrary chunks, while the parser expects a line at a time
+        TLCOutputLineSplitter splitter = new TLCOutputLineSplitter();
+        try {
+            while (!disposed) {
+                Output output = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (output == null) {
+                    continue;
+                }
+                if (output.text() != null) {
+                    spill(output.text());
+                    addText(output.text());
+                    for (String line : splitter.feed(output.text())) {
+                        parser = parser.addLine(line);
+                    }
+                } else {
+                    String lastLine = splitter.flush();
+                    if (lastLine != null) {
+                        parser = parser.addLine(lastLine);
+                    }
+                    parser.notifyProcessExit(output.exitCode());
+                    spillFlush();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // disposed
+        }
+    }
+
+    private boolean spilling() {
+        return runLog != null && !spillFailed;
+    }
+
+    private void spill(@NotNull String text) {
+        if (!spilling()) {
+            return;
+        }
+        try {
+            runLog.append(text);
+        } catch (IOException e) {
+            spillFailed = true;
+            // the channel is closed by interruption on dispose
+            if (!disposed) {
+                LOG.warn("Failed to write TLC run log. The rest of the output is kept in the console", e);
+            }
+        }
+    }
+
+    private void spillFlush() {
+        if (!spilling()) {
+            return;
+        }
+        try {
+            runLog.flush();
+        } catch (IOException e) {
+            spillFailed = true;
+            LOG.warn("Failed to write TLC run log", e);
+        }
+    }
+
+    private void addText(@NotNull String text) {
+        consoleLength += text.length();
+        String tail = null;
+        if (consoleLength > MAX_CONSOLE_LENGTH && spilling()) {
+            try {
+                // the log already contains the text
+                tail = TRIMMED_NOTICE + runLog.tail(MAX_CONSOLE_LENGTH / 2);
+                consoleLength = tail.length();
+            } catch (IOException e) {
+                spillFailed = true;
+                LOG.warn("Failed to read TLC run log", e);
+            }
+        }
+        synchronized (lock) {
+            if (awaitCapacity()) {
+                if (tail != null) {
+                    pendingClear = true;
+                    pendingText.setLength(0);
+                    pendingText.append(tail);
+                } else {
+                    pendingText.append(text);
+                }
+            }
+        }
+        scheduleFlush();
+    }
+
+    private void addEvent(@NotNull TLCEvent event) {
+        synchronized (lock) {
+            if (awaitCapacity()) {
+                pendingEvents.add(event);
+            }
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * Waits until EDT consumes the pending batch if it's full.
+     * Returns false if the pipeline is disposed or the thread is interrupted while waiting.
+     */
+    private boolean awaitCapacity() {
+        try {
+            while (!disposed &&
+                   (pendingText.length() >= MAX_PENDING_TEXT_LENGTH || pendingEvents.size() >= MAX_PENDING_EVENTS)) {
+                lock.wait(POLL_INTERVAL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return !disposed;
+    }
+
+    private void scheduleFlush() {
+        // updates of the same identity are merged into one
+        updateQueue.queue(Update.create(this, this::flush));
+    }
+
+    private void flush() {
+        String text;
+        boolean clear;
+        List<TLCEvent> events;
+        synchronized (lock) {
+            text = pendingText.toString();
+            pendingText.setLength(0);
+            clear = pendingClear;
+            pendingClear = false;
+            events = pendingEvents;
+            pendingEvents = new ArrayList<>();
+            lock.notifyAll();
+        }
+        if (disposed) {
+            return;
+        }
+        if (clear) {
+            sink.clearConsole();
+        }
+        if (!text.isEmpty()) {
+            sink.printInConsole(text);
+        }
+        events.forEach(sink::onEvent);
+    }
+}
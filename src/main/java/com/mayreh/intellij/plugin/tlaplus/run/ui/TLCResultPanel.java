@@ -28,13 +28,12 @@ import com.intellij.ui.SideBorder;
 import com.intellij.ui.components.panels.NonOpaquePanel;
 import com.intellij.util.ui.UIUtil;
 import com.mayreh.intellij.plugin.tlaplus.run.parsing.TLCEvent;
-import com.mayreh.intellij.plugin.tlaplus.run.parsing.TLCEventListener;
 
 /**
  * Split panel which has TLC result as left pane and console-output as right pane.
  * The implementation is mostly taken from {@link TestResultsPanel}
  */
-public class TLCResultPanel extends JPanel implements TLCEventListener, Disposable {
+public class TLCResultPanel extends JPanel implements TLCOutputPipeline.Sink, Disposable {
     private static final String SPLITTER_PROPERTY = "TLCResult.Splitter.Proportion";
 
     private JScrollPane leftPane;
@@ -115,7 +114,13 @@ public class TLCResultPanel extends JPanel implements TLCEventListener, Disposab
         modelCheckResultForm.onEvent(event);
     }
 
+    @Override
     public void printInConsole(String line) {
         consoleView.print(line, ConsoleViewContentType.NORMAL_OUTPUT);
     }
+
+    @Override
+    public void clearConsole() {
+        consoleView.clear();
+    }
 }
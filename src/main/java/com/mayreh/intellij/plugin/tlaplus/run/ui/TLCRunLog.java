@@ -0,0 +1,287 @@
+package com.mayreh.intellij.plugin.tlaplus.run.ui;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+
+/**
+ * Whole raw output of a TLC run, spilled to a file so that the output doesn't stay in the heap
+ * however long TLC runs.
+ *
+ * Output is appended through a fixed-size buffer, and the start offset of every {@link #INDEX_INTERVAL}-th line
+ * is recorded, so any page of lines can be read by seeking to the nearest indexed line.
+ * Output is appended from a single thread while reads may happen on any thread.
+ * Appending is synchronized, while reading only flushes the buffer and takes the written size under the monitor,
+ * then reads the file through positional reads without holding it, so that searching the whole output
+ * doesn't block appending nor other reads.
+ */
+final class TLCRunLog implements Closeable {
+    static final int INDEX_INTERVAL = 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final CharsetEncoder encoder = UTF_8.newEncoder()
+                                                .onMalformedInput(CodingErrorAction.REPLACE)
+                                                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    // bytes written to the file, excluding the buffer
+    private long writtenSize;
+    private long newlineCount;
+    private long lastLineStart;
+    // lineIndex[i] is the start offset of the line (i * INDEX_INTERVAL)
+    private long[] lineIndex = new long[64];
+    private int lineIndexSize = 1;
+    private boolean closed;
+
+    TLCRunLog(@NotNull Path path) throws IOException {
+        this.path = path;
+        channel = FileChannel.open(path,
+                                   StandardOpenOption.READ,
+                                   StandardOpenOption.WRITE,
+                                   StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    static @NotNull TLCRunLog create() throws IOException {
+        return new TLCRunLog(FileUtil.createTempFile("tlc-", ".log", true).toPath());
+    }
+
+    @NotNull Path path() {
+        return path;
+    }
+
+    synchronized void append(@NotNull CharSequence text) throws IOException {
+        if (closed) {
+            return;
+        }
+        CharBuffer in = CharBuffer.wrap(text);
+        // a surrogate pair split across chunks is replaced, as we encode each chunk independently.
+        // flushing the encoder isn't necessary since UTF-8 encoder has no internal state.
+        encoder.reset();
+        boolean overflow;
+        do {
+            int start = buffer.position();
+            overflow = encoder.encode(in, buffer, true).isOverflow();
+            indexLines(start);
+            if (overflow) {
+                writeBuffer();
+            }
+        } while (overflow);
+    }
+
+    /**
+     * Writes out the buffered output to the file.
+     */
+    synchronized void flush() throws IOException {
+        if (!closed) {
+            writeBuffer();
+        }
+    }
+
+    /**
+     * Total number of lines, including the last line which isn't terminated by newline.
+     */
+    synchronized long lineCount() {
+        return size() > lastLineStart ? newlineCount + 1 : newlineCount;
+    }
+
+    /**
+     * Reads at most maxLines lines starting from the line (0-based).
+     * Line terminators are not included in the lines.
+     */
+    @NotNull List<String> readLines(long firstLine, int maxLines) throws IOException {
+        List<String> lines = new ArrayList<>();
+        LineReader reader = openReader(firstLine);
+        String line;
+        while (lines.size() < maxLines && (line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the number of the first line at or after fromLine which contains the text, or -1 if not found.
+     * The search can be canceled through the current progress indicator.
+     */
+    long find(@NotNull String text, long fromLine, boolean caseSensitive) throws IOException {
+        LineReader reader = openReader(fromLine);
+        long lineNumber = fromLine;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            ProgressManager.checkCanceled();
+            if (caseSensitive ? line.contains(text) : StringUtil.containsIgnoreCase(line, text)) {
+                return lineNumber;
+            }
+            lineNumber++;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the last lines of the output within maxBytes.
+     */
+    @NotNull String tail(int maxBytes) throws IOException {
+        long end = flushedSize();
+        long start = Math.max(0, end - maxBytes);
+        ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+        readFully(bytes, start);
+        int offset = 0;
+        if (start > 0) {
+            // skip the partial line unless the preceding byte is newline
+            byte[] previous = new byte[1];
+            readFully(ByteBuffer.wrap(previous), start - 1);
+            if (previous[0] != '\n') {
+                while (offset < bytes.limit() && bytes.get(offset) != '\n') {
+                    offset++;
+                }
+                offset = Math.min(offset + 1, bytes.limit());
+            }
+        }
+        return new String(bytes.array(), offset, bytes.limit() - offset, UTF_8);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            channel.close();
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private long size() {
+        return writtenSize + buffer.position();
+    }
+
+    /**
+     * Counts and indexes the lines in the buffer from the position.
+     */
+    private void indexLines(int start) {
+        // newlines are found in the encoded bytes, since '\n' never appears inside a multi-byte UTF-8 sequence
+        for (int i = start; i < buffer.position(); i++) {
+            if (buffer.get(i) == '\n') {
+                newlineCount++;
+                lastLineStart = writtenSize + i + 1;
+                if (newlineCount % INDEX_INTERVAL == 0) {
+                    addIndex(lastLineStart);
+                }
+            }
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            writtenSize += channel.write(buffer, writtenSize);
+        }
+        buffer.clear();
+    }
+
+    private void addIndex(long offset) {
+        if (lineIndexSize == lineIndex.length) {
+            lineIndex = Arrays.copyOf(lineIndex, lineIndexSize * 2);
+        }
+        lineIndex[lineIndexSize++] = offset;
+    }
+
+    /**
+     * Writes out the buffer and returns the size of the file which can be read without holding the monitor.
+     */
+    private synchronized long flushedSize() throws IOException {
+        writeBuffer();
+        return writtenSize;
+    }
+
+    private @NotNull LineReader openReader(long firstLine) throws IOException {
+        int indexed;
+        LineReader reader;
+        synchronized (this) {
+            writeBuffer();
+            indexed = (int) Math.min(firstLine / INDEX_INTERVAL, lineIndexSize - 1);
+            reader = new LineReader(lineIndex[indexed], writtenSize);
+        }
+        for (long i = (long) indexed * INDEX_INTERVAL; i < firstLine; i++) {
+            if (reader.readLine() == null) {
+                break;
+            }
+        }
+        return reader;
+    }
+
+    private void readFully(@NotNull ByteBuffer bytes, long position) throws IOException {
+        while (bytes.hasRemaining()) {
+            int read = channel.read(bytes, position + bytes.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        bytes.flip();
+    }
+
+    /**
+     * Reads lines from the offset up to the end offset through positional reads, so reading doesn't disturb appending.
+     * Output appended after the reader is opened isn't read.
+     */
+    private class LineReader {
+        private final ByteBuffer chunk = ByteBuffer.allocate(BUFFER_SIZE);
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private final long end;
+        private long position;
+
+        LineReader(long position, long end) {
+            this.position = position;
+            this.end = end;
+            chunk.flip();
+        }
+
+        @Nullable String readLine() throws IOException {
+            line.reset();
+            while (true) {
+                if (!chunk.hasRemaining()) {
+                    chunk.clear();
+                    chunk.limit((int) Math.min(chunk.capacity(), end - position));
+                    int read = chunk.hasRemaining() ? channel.read(chunk, position) : -1;
+                    chunk.flip();
+                    if (read <= 0) {
+                        return line.size() > 0 ? decode() : null;
+                    }
+                    position += read;
+                }
+                byte b = chunk.get();
+                if (b == '\n') {
+                    return decode();
+                }
+                line.write(b);
+            }
+        }
+
+        private @NotNull String decode() {
+            String s = line.toString(UTF_8);
+            return s.endsWith("\r") ? s.substring(0, s.length() - 1) : s;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.mayreh.intellij.plugin.tlaplus.run.ui;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.io.IOException;
+import java.util.List;
+
+import javax.swing.Action;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.text.BadLocationException;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.colors.EditorColorsManager;
+import com.intellij.openapi.editor.colors.EditorFontType;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextArea;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.JBUI;
+
+/**
+ * Browses the whole output of a TLC run from {@link TLCRunLog} a page at a time,
+ * so only the shown page is loaded into the heap.
+ */
+class TLCRunLogDialog extends DialogWrapper {
+    private static final int PAGE_SIZE = 1000;
+    private static final Logger LOG = Logger.getInstance(TLCRunLogDialog.class);
+
+    private final Project project;
+    private final TLCRunLog runLog;
+    private final JBTextArea textArea = new JBTextArea();
+    private final JBLabel statusLabel = new JBLabel();
+    private final JBTextField searchField = new JBTextField(30);
+    private final JBCheckBox caseSensitiveBox = new JBCheckBox("Match case");
+    private final JButton previousButton = new JButton("Previous Page");
+    private final JButton nextButton = new JButton("Next Page");
+    private long pageStart;
+    private long lastMatch = -1;
+
+    TLCRunLogDialog(@NotNull Project project, @NotNull TLCRunLog runLog) {
+        super(project, true);
+        this.project = project;
+        this.runLog = runLog;
+        setModal(false);
+        setTitle("TLC Output");
+        setCancelButtonText("Close");
+
+        textArea.setEditable(false);
+        textArea.setFont(EditorColorsManager.getInstance().getGlobalScheme().getFont(EditorFontType.PLAIN));
+        previousButton.addActionListener(e -> showPage(pageStart - PAGE_SIZE));
+        nextButton.addActionListener(e -> showPage(pageStart + PAGE_SIZE));
+        searchField.addActionListener(e -> findNext());
+
+        init();
+        showPage(0);
+    }
+
+    @Override
+    protected String getDimensionServiceKey() {
+        return "#tlaplus.tlc.output";
+    }
+
+    @Override
+    protected Action @NotNull [] createActions() {
+        return new Action[] { getCancelAction() };
+    }
+
+    @Override
+    protected @Nullable JComponent createNorthPanel() {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JButton findButton = new JButton("Find Next");
+        findButton.addActionListener(e -> findNext());
+        panel.add(searchField);
+        panel.add(caseSensitiveBox);
+        panel.add(findButton);
+        panel.add(previousButton);
+        panel.add(nextButton);
+        panel.add(statusLabel);
+        return panel;
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(new JBScrollPane(textArea), BorderLayout.CENTER);
+        panel.setPreferredSize(JBUI.size(800, 600));
+        return panel;
+    }
+
+    @Override
+    public @Nullable JComponent getPreferredFocusedComponent() {
+        return searchField;
+    }
+
+    private void showPage(long start) {
+        long lineCount = runLog.lineCount();
+        pageStart = Math.max(0, Math.min(start, lineCount - 1));
+        pageStart -= pageStart % PAGE_SIZE;
+        List<String> lines;
+        try {
+            lines = runLog.readLines(pageStart, PAGE_SIZE);
+        } catch (IOException e) {
+            LOG.warn("Failed to read TLC run log", e);
+            statusLabel.setText("Failed to read the output: " + e.getMessage());
+            return;
+        }
+        textArea.setText(String.join("\n", lines));
+        textArea.setCaretPosition(0);
+        statusLabel.setText(lines.isEmpty() ? "No output" : String.format(
+                "Lines %,d-%,d of %,d", pageStart + 1, pageStart + lines.size(), lineCount));
+        previousButton.setEnabled(pageStart > 0);
+        nextButton.setEnabled(pageStart + PAGE_SIZE < lineCount);
+    }
+
+    private void findNext() {
+        String text = searchField.getText();
+        if (text.isEmpty()) {
+            return;
+        }
+        boolean caseSensitive = caseSensitiveBox.isSelected();
+        long from = lastMatch >= pageStart && lastMatch < pageStart + PAGE_SIZE ? lastMatch + 1 : pageStart;
+        long match;
+        try {
+            match = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+                    () -> runLog.find(text, from, caseSensitive), "Searching TLC output", true, project);
+        } catch (ProcessCanceledException e) {
+            return;
+        } catch (IOException e) {
+            LOG.warn("Failed to search TLC run log", e);
+            statusLabel.setText("Failed to search the output: " + e.getMessage());
+            return;
+        }
+        if (match < 0) {
+            lastMatch = -1;
+            statusLabel.setText("\"" + text + "\" not found");
+            return;
+        }
+        lastMatch = match;
+        if (match < pageStart || match >= pageStart + PAGE_SIZE) {
+            showPage(match);
+        }
+        select((int) (match - pageStart));
+    }
+
+    private void select(int lineInPage) {
+        try {
+            textArea.setCaretPosition(textArea.getLineStartOffset(lineInPage));
+            textArea.moveCaretPosition(textArea.getLineEndOffset(lineInPage));
+            textArea.getCaret().setSelectionVisible(true);
+        } catch (BadLocationException e) {
+            // the line is beyond the page, which can't happen as the page contains the match
+        }
+    }
+}
@@ -26,11 +26,16 @@ public class StringUtil {
             return -1;
         }
 
+        return offset - lineStartOffset(text, offset);
+    }
+
+    /**
+     * Get the start offset of the line which contains the offset.
+     */
+    public static int lineStartOffset(@NotNull CharSequence text, int offset) {
         // this should work even for \r\n
-        int newlineOffset = com.intellij.openapi.util.text.StringUtil.lastIndexOf(text, '\n', 0, offset);
-        if (newlineOffset < 0) {
-            return offset;
-        }
-        return offset - (newlineOffset + 1);
+        int newlineOffset = com.intellij.openapi.util.text.StringUtil.lastIndexOf(
+                text, '\n', 0, Math.min(offset, text.length()));
+        return newlineOffset + 1;
     }
 }
@@ -0,0 +1,37 @@
+package com.mayreh.intellij.plugin.tlaplus;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.intellij.lang.cacheBuilder.WordOccurrence.Kind;
+import com.mayreh.intellij.plugin.tlaplus.TLAplusFindUsagesProvider.TLAplusWordScanner;
+
+public class TLAplusWordScannerTest {
+    @Test
+    public void testOccurrenceKinds() {
+        String text = TestUtils.resourceToString("tlaplus/lexer/fixtures/PlusCalCSyntaxComment.tla");
+
+        Map<String, Set<Kind>> kinds = new HashMap<>();
+        new TLAplusWordScanner().processWords(text, occurrence -> {
+            String word = occurrence.getBaseText()
+                                    .subSequence(occurrence.getStart(), occurrence.getEnd())
+                                    .toString();
+            kinds.computeIfAbsent(word, k -> EnumSet.noneOf(Kind.class)).add(occurrence.getKind());
+            return true;
+        });
+
+        assertEquals(EnumSet.of(Kind.CODE), kinds.get("PlusCalCSyntaxComment"));
+        assertEquals(EnumSet.of(Kind.CODE), kinds.get("X"));
+        assertEquals(EnumSet.of(Kind.CODE), kinds.get("Y"));
+        assertEquals(EnumSet.of(Kind.COMMENTS), kinds.get("xxx"));
+        assertEquals(EnumSet.of(Kind.COMMENTS), kinds.get("yyy"));
+        assertEquals(EnumSet.of(Kind.FOREIGN_LANGUAGE), kinds.get("Euclid"));
+        assertEquals(EnumSet.of(Kind.FOREIGN_LANGUAGE), kinds.get("v_init"));
+    }
+}
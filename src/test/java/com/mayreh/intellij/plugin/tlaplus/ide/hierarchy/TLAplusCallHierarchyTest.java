@@ -0,0 +1,93 @@
+package com.mayreh.intellij.plugin.tlaplus.ide.hierarchy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.intellij.ide.hierarchy.CallHierarchyBrowserBase;
+import com.intellij.ide.hierarchy.HierarchyNodeDescriptor;
+import com.intellij.ide.hierarchy.HierarchyTreeStructure;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.mayreh.intellij.plugin.tlaplus.TLAplusFile;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusModule;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusNamedElement;
+
+public class TLAplusCallHierarchyTest extends BasePlatformTestCase {
+    private TLAplusModule deps;
+    private TLAplusModule base;
+
+    @Override
+    protected String getTestDataPath() {
+        return "src/test/resources/tlaplus/psi/dependency/fixtures";
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        PsiFile[] files = myFixture.configureByFiles("Deps.tla", "Deps_Base.tla");
+        deps = ((TLAplusFile) files[0]).module();
+        base = ((TLAplusFile) files[1]).module();
+    }
+
+    public void testCallers() {
+        HierarchyTreeStructure structure = treeStructure(
+                CallHierarchyBrowserBase.getCallerType(), definition(base, "Inc"));
+        HierarchyNodeDescriptor root = (HierarchyNodeDescriptor) structure.getRootElement();
+        assertEquals("Inc (Deps_Base.tla)", text(root));
+
+        List<HierarchyNodeDescriptor> callers = children(structure, root);
+        assertSameElements(texts(callers), "Next (Deps.tla)");
+        assertSameElements(texts(children(structure, callers.get(0))), "Spec (Deps.tla)");
+    }
+
+    public void testCallees() {
+        HierarchyTreeStructure structure = treeStructure(
+                CallHierarchyBrowserBase.getCalleeType(), definition(deps, "Next"));
+        HierarchyNodeDescriptor root = (HierarchyNodeDescriptor) structure.getRootElement();
+
+        List<HierarchyNodeDescriptor> callees = children(structure, root);
+        assertSameElements(texts(callees), "Inc (Deps_Base.tla)", "Reset (Deps.tla)");
+    }
+
+    public void testApplicableElement() {
+        TLAplusCallHierarchyBrowser browser = new TLAplusCallHierarchyBrowser(definition(base, "Inc"));
+        try {
+            assertTrue(browser.isApplicableElement(definition(base, "Inc")));
+            assertTrue(browser.isApplicableElement(definition(base, "x")));
+            assertFalse(browser.isApplicableElement(base.getModuleHeader()));
+        } finally {
+            Disposer.dispose(browser);
+        }
+    }
+
+    private HierarchyTreeStructure treeStructure(String type, TLAplusNamedElement definition) {
+        TLAplusCallHierarchyBrowser browser = new TLAplusCallHierarchyBrowser(definition);
+        try {
+            return browser.createHierarchyTreeStructure(type, definition);
+        } finally {
+            Disposer.dispose(browser);
+        }
+    }
+
+    private static List<HierarchyNodeDescriptor> children(HierarchyTreeStructure structure,
+                                                          HierarchyNodeDescriptor descriptor) {
+        return Arrays.stream(structure.getChildElements(descriptor))
+                     .map(HierarchyNodeDescriptor.class::cast)
+                     .collect(Collectors.toList());
+    }
+
+    private static List<String> texts(List<HierarchyNodeDescriptor> descriptors) {
+        return descriptors.stream().map(TLAplusCallHierarchyTest::text).collect(Collectors.toList());
+    }
+
+    private static String text(HierarchyNodeDescriptor descriptor) {
+        descriptor.update();
+        return descriptor.getHighlightedText().getText();
+    }
+
+    private static TLAplusNamedElement definition(TLAplusModule module, String name) {
+        return module.publicDefinitions(name).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,26 @@
+package com.mayreh.intellij.plugin.tlaplus.ide.inspections;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+public class TLAplusReferenceInspectionTest extends BasePlatformTestCase {
+    @Override
+    protected String getTestDataPath() {
+        return "src/test/resources/tlaplus/ide/inspections/fixtures";
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.enableInspections(new TLAplusReferenceInspection());
+    }
+
+    public void testReference() {
+        myFixture.configureByFile("Reference.tla");
+        myFixture.checkHighlighting();
+    }
+
+    public void testPlusCalTranslated() {
+        myFixture.configureByFile("PlusCalTranslated.tla");
+        myFixture.checkHighlighting();
+    }
+}
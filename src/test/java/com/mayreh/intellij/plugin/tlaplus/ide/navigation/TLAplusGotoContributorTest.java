@@ -0,0 +1,56 @@
+package com.mayreh.intellij.plugin.tlaplus.ide.navigation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.intellij.navigation.ChooseByNameContributorEx;
+import com.intellij.navigation.NavigationItem;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.util.indexing.FindSymbolParameters;
+
+public class TLAplusGotoContributorTest extends BasePlatformTestCase {
+    @Override
+    protected String getTestDataPath() {
+        return "src/test/resources/tlaplus/ide/navigation/fixtures";
+    }
+
+    public void testGotoSymbol() {
+        myFixture.configureByFiles("Symbols_A.tla", "Symbols_B.tla");
+        ChooseByNameContributorEx contributor = new TLAplusGotoSymbolContributor();
+
+        List<String> names = names(contributor);
+        assertContainsElements(names, "Symbols_A", "Symbols_B", "Capacity", "queue", "Enqueue", "Sum", "Init");
+        // definitions in LET are not visible from other modules
+        assertDoesntContain(names, "Local");
+
+        List<NavigationItem> items = elements(contributor, "Enqueue");
+        assertEquals(2, items.size());
+        assertSameElements(items.stream()
+                                .map(i -> i.getPresentation().getLocationString())
+                                .collect(Collectors.toList()),
+                           "Symbols_A.tla", "Symbols_B.tla");
+    }
+
+    public void testGotoClass() {
+        myFixture.configureByFiles("Symbols_A.tla", "Symbols_B.tla");
+        ChooseByNameContributorEx contributor = new TLAplusGotoClassContributor();
+
+        assertSameElements(names(contributor), "Symbols_A", "Symbols_B");
+        assertEquals(1, elements(contributor, "Symbols_A").size());
+    }
+
+    private List<String> names(ChooseByNameContributorEx contributor) {
+        List<String> names = new ArrayList<>();
+        contributor.processNames(names::add, GlobalSearchScope.projectScope(getProject()), null);
+        return names;
+    }
+
+    private List<NavigationItem> elements(ChooseByNameContributorEx contributor, String name) {
+        List<NavigationItem> items = new ArrayList<>();
+        contributor.processElementsWithName(
+                name, items::add, FindSymbolParameters.wrap(name, getProject(), false));
+        return items;
+    }
+}
@@ -0,0 +1,160 @@
+package com.mayreh.intellij.plugin.tlaplus.lexer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.intellij.lexer.Lexer;
+import com.mayreh.intellij.plugin.util.StringUtil;
+
+import lombok.Value;
+
+public class LineStartIndexTest {
+    private static final String HEADER = "---- MODULE Wide ----\n";
+    private static final String FOOTER = "====\n";
+
+    @Test
+    public void testOffsetToColumn() {
+        String text = "abc\n\n  def\r\nghijkl\n";
+        LineStartIndex index = new LineStartIndex();
+        index.reset(text, 0);
+        for (int offset = 0; offset <= text.length() + 1; offset++) {
+            assertEquals("offset " + offset,
+                         StringUtil.offsetToColumn(text, offset),
+                         index.offsetToColumn(text, offset));
+        }
+        // lookup for earlier offsets
+        for (int offset = text.length() - 1; offset >= 0; offset--) {
+            assertEquals("offset " + offset,
+                         StringUtil.offsetToColumn(text, offset),
+                         index.offsetToColumn(text, offset));
+        }
+    }
+
+    @Test
+    public void testOffsetToColumnFromMiddle() {
+        String text = "abc\n  def\nghi";
+        LineStartIndex index = new LineStartIndex();
+        index.reset(text, 7);
+        assertEquals(3, index.offsetToColumn(text, 7));
+        assertEquals(0, index.offsetToColumn(text, 10));
+        assertEquals(2, index.offsetToColumn(text, 2));
+    }
+
+    /**
+     * Column lookups on a generated spec with wide junction lists should be same as the naive backward scan.
+     */
+    @Test
+    public void testWideJunctionListsColumns() {
+        String text = HEADER + wideJunctionOperators(50) + FOOTER;
+        LineStartIndex index = new LineStartIndex();
+        index.reset(text, 0);
+        for (int offset : junctionOffsets(text)) {
+            assertEquals("offset " + offset,
+                         StringUtil.offsetToColumn(text, offset),
+                         index.offsetToColumn(text, offset));
+        }
+    }
+
+    /**
+     * All operators of the generated spec have the same text except their names,
+     * so lexing the whole spec should produce the tokens of the single-operator spec for every operator,
+     * however far the operator is from the beginning of the text.
+     */
+    @Test
+    public void testWideJunctionListsTokens() {
+        int operators = 50;
+        String single = HEADER + wideJunctionOperators(1) + FOOTER;
+        int blockStart = HEADER.length();
+        int blockLength = single.length() - HEADER.length() - FOOTER.length();
+
+        List<Token> reference = tokens(single);
+        List<Token> expected = new ArrayList<>();
+        for (Token token : reference) {
+            if (token.start < blockStart) {
+                expected.add(token);
+            }
+        }
+        for (int op = 0; op < operators; op++) {
+            for (Token token : reference) {
+                if (inBlock(token, blockStart, blockLength)) {
+                    expected.add(token.shift(op * blockLength));
+                }
+            }
+        }
+        for (Token token : reference) {
+            if (token.start >= blockStart + blockLength && !inBlock(token, blockStart, blockLength)) {
+                expected.add(token.shift((operators - 1) * blockLength));
+            }
+        }
+
+        assertEquals(expected, tokens(HEADER + wideJunctionOperators(operators) + FOOTER));
+    }
+
+    /**
+     * Generate operators whose bodies are junction lists
+     * where each item is a long line of infix conjunctions.
+     */
+    private static String wideJunctionOperators(int operators) {
+        StringBuilder sb = new StringBuilder();
+        for (int op = 0; op < operators; op++) {
+            // names have the same length so that all operators have the same text length
+            sb.append(String.format("Op%02d", op)).append(" ==\n");
+            for (int item = 0; item < 20; item++) {
+                sb.append("        ").append(item % 2 == 0 ? "/\\" : "\\/").append(" x = 0");
+                for (int i = 0; i < 200; i++) {
+                    sb.append(" /\\ x").append(i).append(" = ").append(i);
+                }
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Whether the token belongs to the operator block.
+     * Zero-width tokens (i.e. JUNCTION_BREAK) closing the block's junction lists are emitted at the end of the block.
+     */
+    private static boolean inBlock(Token token, int blockStart, int blockLength) {
+        int blockEnd = blockStart + blockLength;
+        return token.start >= blockStart && token.start < blockEnd ||
+               token.start == blockEnd && token.end == blockEnd;
+    }
+
+    private static List<Token> tokens(String text) {
+        List<Token> tokens = new ArrayList<>();
+        Lexer lexer = new TLAplusLexer(false);
+        lexer.start(text);
+        while (lexer.getTokenType() != null) {
+            tokens.add(new Token(String.valueOf(lexer.getTokenType()), lexer.getTokenStart(), lexer.getTokenEnd()));
+            lexer.advance();
+        }
+        return tokens;
+    }
+
+    @Value
+    private static class Token {
+        String type;
+        int start;
+        int end;
+
+        Token shift(int delta) {
+            return new Token(type, start + delta, end + delta);
+        }
+    }
+
+    private static List<Integer> junctionOffsets(String text) {
+        List<Integer> offsets = new ArrayList<>();
+        for (int i = 0; i + 1 < text.length(); i++) {
+            char c = text.charAt(i);
+            char next = text.charAt(i + 1);
+            if ((c == '/' && next == '\\') || (c == '\\' && next == '/')) {
+                offsets.add(i);
+            }
+        }
+        return offsets;
+    }
+}
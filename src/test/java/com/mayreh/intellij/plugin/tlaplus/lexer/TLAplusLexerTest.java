@@ -1,9 +1,20 @@
 package com.mayreh.intellij.plugin.tlaplus.lexer;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
 import com.intellij.lexer.Lexer;
 import com.mayreh.intellij.plugin.LexerTestCaseBase;
+import com.mayreh.intellij.plugin.tlaplus.TLAplusSyntaxHighlighter.TLAplusHighlightingLexer;
+import com.mayreh.intellij.plugin.tlaplus.TestUtils;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusElementTypes;
 
 public class TLAplusLexerTest extends LexerTestCaseBase {
+    private static final List<String> FIXTURES = List.of(
+            "minimal", "nested", "ABSpec", "Junction", "Junction2", "Junction3", "fairness",
+            "PlusCalCSyntaxComment");
+
     public TLAplusLexerTest() {
         super("tlaplus/lexer/fixtures", "tla");
     }
@@ -44,4 +55,124 @@ public class TLAplusLexerTest extends LexerTestCaseBase {
     public void test_PlusCalCSyntaxComment() {
         doTest();
     }
+
+    public void test_restartFromRestartableStates() {
+        for (String fixture : FIXTURES) {
+            String text = TestUtils.resourceToString("tlaplus/lexer/fixtures/" + fixture + ".tla");
+            checkRestart(fixture, text, () -> new TLAplusLexer(false));
+            checkRestart(fixture, text, TLAplusHighlightingLexer::new);
+        }
+    }
+
+    /**
+     * Editing PlusCal algorithm in a comment makes the editor re-lex the comment from a restartable state,
+     * with the same lexer instance which has cached the comment before the edit.
+     */
+    public void test_PlusCalCommentRelexedIncrementally() {
+        String text = TestUtils.resourceToString("tlaplus/lexer/fixtures/PlusCalCSyntaxComment.tla");
+        String edited = text.replace("u := u - v;", "u := u - v - 1;");
+        assertFalse(text.equals(edited));
+
+        Lexer lexer = new TLAplusLexer(false);
+        List<String> originalTokens = tokens(lexer, text, 0, 0);
+
+        List<String> editedTokens = tokens(new TLAplusLexer(false), edited, 0, 0);
+        Lexer fresh = new TLAplusLexer(false);
+        fresh.start(edited);
+        int restarts = 0;
+        for (int i = 0; fresh.getTokenType() != null; i++, fresh.advance()) {
+            int state = fresh.getState();
+            if (!TLAplusLexerState.isRestartable(state)) {
+                continue;
+            }
+            restarts++;
+            assertEquals(String.format("restart from offset %d", fresh.getTokenStart()),
+                         editedTokens.subList(i, editedTokens.size()),
+                         tokens(lexer, edited, fresh.getTokenStart(), state));
+        }
+        assertTrue(restarts > 1);
+
+        // undo the edit
+        assertEquals(originalTokens, tokens(lexer, text, 0, 0));
+    }
+
+    /**
+     * Comments are lexed correctly after their results are evicted from the cache.
+     */
+    public void test_PlusCalCommentCacheEviction() {
+        StringBuilder sb = new StringBuilder();
+        List<int[]> ranges = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int start = sb.length();
+            sb.append("(* --algorithm A").append(i).append(" { { x := ").append(i).append("; } } *)");
+            ranges.add(new int[] { start, sb.length() });
+            sb.append('\n');
+        }
+        String text = sb.toString();
+
+        TLAplusPlusCalCommentLexer lexer = new TLAplusPlusCalCommentLexer();
+        List<List<String>> expected = new ArrayList<>();
+        for (int[] range : ranges) {
+            expected.add(commentTokens(new TLAplusPlusCalCommentLexer(), text, range[0], range[1]));
+            assertEquals(expected.get(expected.size() - 1), commentTokens(lexer, text, range[0], range[1]));
+        }
+        assertEquals(16, lexer.cachedCommentCount());
+
+        // the first comments are evicted and lexed again, in reverse order to evict the recent ones too
+        for (int i = ranges.size() - 1; i >= 0; i--) {
+            int[] range = ranges.get(i);
+            assertEquals("comment " + i, expected.get(i), commentTokens(lexer, text, range[0], range[1]));
+        }
+        assertEquals(16, lexer.cachedCommentCount());
+
+        // comments which aren't PlusCal are not cached
+        String plain = "(* plain comment *)";
+        assertEquals(List.of(String.format("%s (0,%d)", TLAplusElementTypes.COMMENT, plain.length())),
+                     commentTokens(lexer, plain, 0, plain.length()));
+        assertEquals(16, lexer.cachedCommentCount());
+    }
+
+    /**
+     * Restart the lexer from every token which has restartable state and
+     * check that it produces exactly the same tokens as lexing the whole text.
+     */
+    private static void checkRestart(String fixture, String text, Supplier<Lexer> lexerFactory) {
+        List<String> fullTokens = tokens(lexerFactory.get(), text, 0, 0);
+
+        Lexer lexer = lexerFactory.get();
+        lexer.start(text);
+        int restarts = 0;
+        for (int i = 0; lexer.getTokenType() != null; i++, lexer.advance()) {
+            int state = lexer.getState();
+            if (!TLAplusLexerState.isRestartable(state)) {
+                continue;
+            }
+            restarts++;
+            assertEquals(String.format("%s: restart from offset %d", fixture, lexer.getTokenStart()),
+                         fullTokens.subList(i, fullTokens.size()),
+                         tokens(lexerFactory.get(), text, lexer.getTokenStart(), state));
+        }
+        assertTrue(fixture + ": lexer should be restartable from middle of the text", restarts > 1);
+    }
+
+    private static List<String> tokens(Lexer lexer, String text, int startOffset, int state) {
+        lexer.start(text, startOffset, text.length(), state);
+        return tokens(lexer);
+    }
+
+    private static List<String> commentTokens(TLAplusPlusCalCommentLexer lexer, String text,
+                                              int startOffset, int endOffset) {
+        lexer.start(text, startOffset, endOffset, 0);
+        return tokens(lexer);
+    }
+
+    private static List<String> tokens(Lexer lexer) {
+        List<String> tokens = new ArrayList<>();
+        while (lexer.getTokenType() != null) {
+            tokens.add(String.format("%s (%d,%d)",
+                                     lexer.getTokenType(), lexer.getTokenStart(), lexer.getTokenEnd()));
+            lexer.advance();
+        }
+        return tokens;
+    }
 }
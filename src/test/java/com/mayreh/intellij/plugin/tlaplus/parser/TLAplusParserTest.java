@@ -1,7 +1,12 @@
 package com.mayreh.intellij.plugin.tlaplus.parser;
 
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
 import com.mayreh.intellij.plugin.ParserTestCaseBase;
 import com.mayreh.intellij.plugin.tlaplus.TLAplusParserDefinition;
+import com.mayreh.intellij.plugin.tlaplus.psi.TLAplusOpDefinition;
 
 public class TLAplusParserTest extends ParserTestCaseBase {
     public TLAplusParserTest() {
@@ -43,4 +48,52 @@ public class TLAplusParserTest extends ParserTestCaseBase {
     public void test_union() {
         doTest();
     }
+
+    /**
+     * Long chains of infix /\ and \/ used to take quadratic time to parse, since tokens were walked forward
+     * to the JUNCTION_BREAK for each infix /\ or \/ which the lexer emitted as JUNCTION_BEGIN.
+     * Tokens visited to resolve false junctions should grow linearly with the chain length.
+     */
+    public void test_LongInfixJunctionChain() {
+        for (int length : new int[] { 50, 5000 }) {
+            String text = infixJunctionChain(length);
+            TLAplusParserDefinition definition = new TLAplusParserDefinition();
+            PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(
+                    definition, definition.createLexer(getProject()), text);
+            definition.createParser(getProject()).parse(definition.getFileNodeType(), builder);
+
+            JunctionTokenTable table = JunctionTokenTable.get(builder);
+            assertNotNull(table);
+            // every infix /\ and \/ has false JUNCTION_BREAK at least
+            assertTrue(table.falseJunctionTokenCount() >= length * 2);
+            // each token is visited once to build the table, and at most once more to be marked as false
+            assertTrue(String.format("chain of %d: visited %d tokens out of %d",
+                                     length, table.visitedTokens(), table.tokenCount()),
+                       table.visitedTokens() <= table.tokenCount() * 2);
+
+            PsiFile file = createPsiFile("InfixJunctionChain", text);
+            ensureParsed(file);
+            assertFalse(PsiTreeUtil.hasErrorElements(file));
+            assertEquals(1, PsiTreeUtil.findChildrenOfType(file, TLAplusOpDefinition.class).size());
+        }
+    }
+
+    /**
+     * Generate a definition whose body is a junction-list of two items,
+     * each of which is a chain of infix /\ or \/ of the length.
+     */
+    private static String infixJunctionChain(int length) {
+        String lhs = "Chain == ";
+        StringBuilder sb = new StringBuilder("---- MODULE InfixJunctionChain ----\n");
+        sb.append(lhs).append("/\\ x");
+        for (int i = 0; i < length; i++) {
+            sb.append(" /\\ x").append(i);
+        }
+        sb.append('\n').append(" ".repeat(lhs.length())).append("/\\ y");
+        for (int i = 0; i < length; i++) {
+            sb.append(" \\/ y").append(i);
+        }
+        sb.append("\n====\n");
+        return sb.toString();
+    }
 }
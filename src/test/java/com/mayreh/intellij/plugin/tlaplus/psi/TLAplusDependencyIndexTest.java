@@ -0,0 +1,39 @@
+package com.mayreh.intellij.plugin.tlaplus.psi;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.mayreh.intellij.plugin.tlaplus.TLAplusFile;
+import com.mayreh.intellij.plugin.tlaplus.psi.ext.TLAplusDependencyIndex;
+
+public class TLAplusDependencyIndexTest extends BasePlatformTestCase {
+    @Override
+    protected String getTestDataPath() {
+        return "src/test/resources/tlaplus/psi/dependency/fixtures";
+    }
+
+    public void testDependencies() {
+        PsiFile[] files = myFixture.configureByFiles("Deps.tla", "Deps_Base.tla");
+        TLAplusModule deps = ((TLAplusFile) files[0]).module();
+        TLAplusModule base = ((TLAplusFile) files[1]).module();
+
+        assertSameElements(names(TLAplusDependencyIndex.directUsers(definition(base, "x"))),
+                           "Inc", "Reset", "Spec", "Inv");
+        assertSameElements(names(TLAplusDependencyIndex.directUsers(definition(base, "Inc"))), "Next");
+        assertSameElements(names(TLAplusDependencyIndex.directDependencies(definition(deps, "Next"))),
+                           "Inc", "Reset");
+        assertSameElements(names(TLAplusDependencyIndex.transitiveUsers(definition(base, "Inc"))),
+                           "Next", "Spec");
+    }
+
+    private static TLAplusNamedElement definition(TLAplusModule module, String name) {
+        return module.publicDefinitions(name).findFirst().orElseThrow();
+    }
+
+    private static List<String> names(Collection<TLAplusNamedElement> definitions) {
+        return definitions.stream().map(TLAplusNamedElement::getName).collect(Collectors.toList());
+    }
+}
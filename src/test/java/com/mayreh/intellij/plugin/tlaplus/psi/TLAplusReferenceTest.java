@@ -1,14 +1,28 @@
 package com.mayreh.intellij.plugin.tlaplus.psi;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.jetbrains.annotations.Nullable;
 import org.junit.Assert;
 
 import com.intellij.codeInsight.completion.CompletionType;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.DumbServiceImpl;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiPolyVariantReference;
 import com.intellij.psi.PsiReference;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.mayreh.intellij.plugin.tlaplus.TLAplusFile;
+import com.mayreh.intellij.plugin.tlaplus.psi.ext.TLAplusModuleResolver;
+import com.mayreh.intellij.plugin.tlaplus.psi.ext.TLAplusReferenceElement;
 
 public class TLAplusReferenceTest extends BasePlatformTestCase {
     @Override
@@ -31,6 +45,26 @@ public class TLAplusReferenceTest extends BasePlatformTestCase {
         Assert.assertEquals("Extends_B", name.currentModule().getModuleHeader().getName());
     }
 
+    public void testExtendsInDumbMode() {
+        PsiReference reference = getReferenceAtCaret("Extends_A.tla", "Extends_B.tla");
+        DumbServiceImpl dumbService = DumbServiceImpl.getInstance(getProject());
+        dumbService.setDumb(true);
+        try {
+            // modules are looked up without the index
+            TLAplusNonfixLhsName name = assertInstanceOf(reference.resolve(), TLAplusNonfixLhsName.class);
+            Assert.assertEquals("Extends_B", name.currentModule().getModuleHeader().getName());
+        } finally {
+            dumbService.setDumb(false);
+        }
+    }
+
+    public void testExtendsOtherDirectory() {
+        myFixture.addFileToProject("sub/Extends_B.tla", "---- MODULE Extends_B ----\nFoo == 1\n====");
+        PsiReference reference = getReferenceAtCaret("Extends_A.tla");
+        // Only modules in the same directory are visible
+        Assert.assertNull(reference.resolve());
+    }
+
     public void testExtendsLocal() {
         PsiReference reference = getReferenceAtCaret("Extends_Local_A.tla", "Extends_Local_B.tla");
         // LOCAL definition should not be visible
@@ -48,13 +82,157 @@ public class TLAplusReferenceTest extends BasePlatformTestCase {
         Assert.assertEquals("InstancePrefix_C", name.currentModule().getModuleHeader().getName());
     }
 
+    public void testInstancePrefixLayers() {
+        PsiReference reference = getReferenceAtCaret("Layer_A.tla", "Layer_B.tla", "Layer_C.tla");
+
+        TLAplusNonfixLhsName name = assertInstanceOf(reference.resolve(), TLAplusNonfixLhsName.class);
+        Assert.assertEquals("Bar", name.getName());
+        Assert.assertEquals("Layer_C", name.currentModule().getModuleHeader().getName());
+
+        TLAplusModule module = ((TLAplusFile) myFixture.getFile()).module();
+        Assert.assertEquals(name.currentModule(), module.resolveInstancePrefix("L1!L2"));
+        Assert.assertNull(module.resolveInstancePrefix("L1!L3"));
+    }
+
+    public void testModuleResolver() {
+        getReferenceAtCaret("Layer_A.tla", "Layer_B.tla", "Layer_C.tla");
+        TLAplusModule module = ((TLAplusFile) myFixture.getFile()).module();
+
+        Map<TLAplusReferenceElement, ResolveResult[]> bindings = TLAplusModuleResolver.bindings(module);
+        Collection<TLAplusReferenceElement> elements =
+                PsiTreeUtil.findChildrenOfType(module, TLAplusReferenceElement.class);
+        // Layer_B (in INSTANCE), L1, L2 and Bar
+        Assert.assertEquals(4, elements.size());
+        for (TLAplusReferenceElement element : elements) {
+            ResolveResult[] results = bindings.get(element);
+            Assert.assertNotNull(element.getText(), results);
+            Assert.assertEquals(element.getText(), 1, results.length);
+            Assert.assertEquals(results[0].getElement(), element.getReference().resolve());
+        }
+    }
+
+    public void testResolveFromStubs() {
+        PsiReference reference = getReferenceAtCaret("Stub_A.tla", "Stub_B.tla", "Stub_C.tla");
+
+        TLAplusNonfixLhsName name = assertInstanceOf(reference.resolve(), TLAplusNonfixLhsName.class);
+        Assert.assertEquals("Baz", name.getName());
+        // Resolved through EXTENDS and INSTANCE without parsing other modules
+        Assert.assertEquals("Stub_C.tla", name.getContainingFile().getName());
+        for (String fileName : Arrays.asList("Stub_B.tla", "Stub_C.tla")) {
+            PsiFileImpl file = (PsiFileImpl) myFixture.getFile().getContainingDirectory().findFile(fileName);
+            Assert.assertFalse(fileName, file.isContentsLoaded());
+        }
+    }
+
+    public void testStandardModule() {
+        PsiReference reference = getReferenceAtCaret("StandardModule.tla");
+
+        TLAplusNonfixLhsName name = assertInstanceOf(reference.resolve(), TLAplusNonfixLhsName.class);
+        Assert.assertEquals("Nat", name.getName());
+        Assert.assertEquals("Naturals.tla", name.getContainingFile().getName());
+    }
+
+    public void testAmbiguous() {
+        PsiPolyVariantReference reference = (PsiPolyVariantReference) getReferenceAtCaret(
+                "Ambiguous_A.tla", "Ambiguous_B.tla", "Ambiguous_C.tla", "Ambiguous_D.tla");
+
+        ResolveResult[] results = reference.multiResolve(false);
+        Assert.assertEquals(2, results.length);
+        Assert.assertEquals("Ambiguous_B.tla", results[0].getElement().getContainingFile().getName());
+        Assert.assertEquals("Ambiguous_C.tla", results[1].getElement().getContainingFile().getName());
+        Assert.assertEquals(results[0].getElement(), reference.resolve());
+    }
+
+    public void testDiamondExtends() {
+        PsiPolyVariantReference reference = (PsiPolyVariantReference) getReferenceAtCaret(
+                "Diamond.tla", "Ambiguous_B.tla", "Ambiguous_C.tla", "Ambiguous_D.tla");
+
+        // Same definition reachable through two paths is not ambiguous
+        Assert.assertEquals(1, reference.multiResolve(false).length);
+    }
+
+    public void testExtendsCycle() {
+        PsiReference reference = getReferenceAtCaret("Cycle_A.tla", "Cycle_B.tla");
+
+        TLAplusNonfixLhsName name = assertInstanceOf(reference.resolve(), TLAplusNonfixLhsName.class);
+        Assert.assertEquals("Bar", name.getName());
+        Assert.assertEquals("Cycle_B", name.currentModule().getModuleHeader().getName());
+
+        // public tables of modules in the cycle don't recurse into each other
+        TLAplusModule moduleA = ((TLAplusFile) myFixture.getFile()).module();
+        Assert.assertNotNull(moduleA);
+        for (TLAplusModule module : List.of(moduleA, name.currentModule())) {
+            assertSameElements(module.publicNameTable().definitions().map(TLAplusNamedElement::getName)
+                                     .collect(Collectors.toList()),
+                               "Foo", "Bar");
+        }
+    }
+
+    public void testResolveAfterExtendsChange() {
+        myFixture.addFileToProject("Graph_B.tla", "---- MODULE Graph_B ----\nFoo == 1\n====");
+        myFixture.configureByText("Graph_A.tla", "---- MODULE Graph_A ----\nBar == Fo<caret>o\n====");
+        Assert.assertNull(myFixture.getReferenceAtCaretPositionWithAssertion().resolve());
+
+        Document document = myFixture.getEditor().getDocument();
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> document.insertString(
+                document.getText().indexOf("Bar"), "EXTENDS Graph_B\n"));
+        PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+
+        TLAplusNonfixLhsName name = assertInstanceOf(
+                myFixture.getReferenceAtCaretPositionWithAssertion().resolve(), TLAplusNonfixLhsName.class);
+        Assert.assertEquals("Graph_B", name.currentModule().getModuleHeader().getName());
+    }
+
+    public void testForwardReference() {
+        PsiReference reference = getReferenceAtCaret("ForwardReference.tla");
+        // Definitions are visible only after its name
+        Assert.assertNull(reference.resolve());
+    }
+
+    public void testResolveAfterModification() {
+        myFixture.configureByText("Modification.tla", "---- MODULE Modification ----\nBar == Fo<caret>o\n====");
+        Assert.assertNull(myFixture.getReferenceAtCaretPositionWithAssertion().resolve());
+
+        Document document = myFixture.getEditor().getDocument();
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> document.insertString(
+                document.getText().indexOf("Bar"), "Foo == 1\n"));
+        PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+
+        TLAplusNonfixLhsName name = assertInstanceOf(
+                myFixture.getReferenceAtCaretPositionWithAssertion().resolve(), TLAplusNonfixLhsName.class);
+        Assert.assertEquals("Foo", name.getName());
+    }
+
     public void testCompletionStandardModules() {
         List<String> elements = getLookupElementStringsAtCaret("StandardModules.tla");
         Assert.assertNotNull(elements);
-        assertSameElements(elements,
-                           "Bags", "FiniteSets", "Integers", "Json",
-                           "Naturals", "Randomization", "Reals", "RealTime",
-                           "Sequences", "TLC", "TLCExt", "Toolbox");
+        // Standard modules are listed from tla2tools.jar, which may contain newer modules
+        assertContainsElements(elements,
+                               "Bags", "FiniteSets", "Integers", "Json",
+                               "Naturals", "Randomization", "Reals", "RealTime",
+                               "Sequences", "TLC", "TLCExt", "Toolbox");
+    }
+
+    public void testCompletionVisibleDefinitions() {
+        List<String> elements = getLookupElementStringsAtCaret("Completion.tla", "Completion_Base.tla");
+        Assert.assertNotNull(elements);
+        assertContainsElements(elements, "CLocal", "Cap", "Capacity", "Combine");
+        // LOCAL definitions in other modules and forward references are not visible
+        assertDoesntContain(elements, "CHidden", "CLater", "Other");
+    }
+
+    public void testCompletionInDumbMode() {
+        DumbServiceImpl dumbService = DumbServiceImpl.getInstance(getProject());
+        dumbService.setDumb(true);
+        try {
+            List<String> elements = getLookupElementStringsAtCaret("Completion.tla", "Completion_Base.tla");
+            Assert.assertNotNull(elements);
+            // names in the module are completed without the index
+            assertContainsElements(elements, "CLocal", "Cap");
+            assertDoesntContain(elements, "CLater", "Other");
+        } finally {
+            dumbService.setDumb(false);
+        }
     }
 
     private PsiReference getReferenceAtCaret(String... fileNames) {
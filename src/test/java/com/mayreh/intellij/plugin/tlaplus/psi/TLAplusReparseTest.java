@@ -0,0 +1,89 @@
+package com.mayreh.intellij.plugin.tlaplus.psi;
+
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.testFramework.PsiTestUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+/**
+ * Checks that incremental reparse on typing produces the same tree as parsing the whole file.
+ */
+public class TLAplusReparseTest extends BasePlatformTestCase {
+    public void testOperatorDefinition() {
+        doTest("---- MODULE Reparse ----\n" +
+               "Foo == /\\ 1 = 1\n" +
+               "       /\\ 2 = <caret>2\n" +
+               "Bar == 3\n" +
+               "====\n",
+               "1 +");
+    }
+
+    public void testOperatorDefinitionAddJunction() {
+        doTest("---- MODULE Reparse ----\n" +
+               "Foo == /\\ 1 = 1<caret>\n" +
+               "\n" +
+               "Bar == 3\n" +
+               "====\n",
+               "\n       /\\ 2 = 2\n            \\/ 3 = 3");
+    }
+
+    public void testLocalDefinition() {
+        doTest("---- MODULE Reparse ----\n" +
+               "LOCAL Foo == /\\ 1 = 1\n" +
+               "             /\\ 2 = <caret>2\n" +
+               "Bar == 3\n" +
+               "====\n",
+               "\n             /\\ 3");
+    }
+
+    public void testFunctionDefinition() {
+        doTest("---- MODULE Reparse ----\n" +
+               "f[x \\in {1, 2}] == x<caret>\n" +
+               "Bar == 3\n" +
+               "====\n",
+               " + 1");
+    }
+
+    public void testIndentedFollowingDefinition() {
+        doTest("---- MODULE Reparse ----\n" +
+               "Foo == /\\ 1 = 1<caret>\n" +
+               "  Bar == 3\n" +
+               "====\n",
+               "\n       /\\ 2 = 2");
+    }
+
+    public void testDefinitionBecomesInvalid() {
+        doTest("---- MODULE Reparse ----\n" +
+               "Foo == 1 = 1<caret>\n" +
+               "Bar == 3\n" +
+               "====\n",
+               " /\\");
+    }
+
+    public void testPlusCalAlgorithm() {
+        doTest("---- MODULE Reparse ----\n" +
+               "(* --algorithm Reparse {\n" +
+               "  variables x = 0;\n" +
+               "  { x := <caret>1; }\n" +
+               "} *)\n" +
+               "Bar == 3\n" +
+               "====\n",
+               "x + ");
+    }
+
+    public void testPlusCalAlgorithmTerminatorRemoved() {
+        doTest("---- MODULE Reparse ----\n" +
+               "(* --algorithm Reparse {\n" +
+               "  { skip; }\n" +
+               "}<caret> (* nested *) *)\n" +
+               "Bar == 3\n" +
+               "====\n",
+               "\b(* ");
+    }
+
+    private void doTest(String text, String typed) {
+        myFixture.configureByText("Reparse.tla", text);
+        myFixture.type(typed);
+        PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+        PsiTestUtil.checkFileStructure(myFixture.getFile());
+    }
+}
@@ -2,7 +2,7 @@ package com.mayreh.intellij.plugin.tlaplus.run.parsing;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.Random;
 import java.util.stream.Collectors;
 
 import org.junit.Assert;
@@ -16,19 +16,57 @@ public class TLCEventParserTest extends BasePlatformTestCase {
         doTest("PaxosCommit_success");
     }
 
+    public void testStateCountsBeyondIntRange() {
+        doTest("PaxosCommit_large");
+    }
+
+    public void testPaxosCommitSuccessRandomChunks() {
+        String output = output("PaxosCommit_success");
+        String expected = expected("PaxosCommit_success");
+        List<String> expectedLines = output.lines().collect(Collectors.toList());
+
+        Random random = new Random(0);
+        for (int i = 0; i < 100; i++) {
+            String text = i % 2 == 0 ? output : output.replace("\n", "\r\n");
+            TLCOutputLineSplitter splitter = new TLCOutputLineSplitter();
+            List<String> lines = new ArrayList<>();
+            int offset = 0;
+            while (offset < text.length()) {
+                // mix of tiny chunks (which split markers) and large chunks (which contain many lines)
+                int size = random.nextBoolean() ? 1 + random.nextInt(8) : 1 + random.nextInt(4096);
+                int end = Math.min(text.length(), offset + size);
+                lines.addAll(splitter.feed(text.substring(offset, end)));
+                offset = end;
+            }
+            String lastLine = splitter.flush();
+            if (lastLine != null) {
+                lines.add(lastLine);
+            }
+
+            Assert.assertEquals(expectedLines, lines);
+            Assert.assertEquals(expected, parse(lines));
+        }
+    }
+
     private void doTest(String fileName) {
+        List<String> lines = output(fileName).lines().collect(Collectors.toList());
+        Assert.assertEquals(expected(fileName), parse(lines));
+    }
+
+    private static String parse(List<String> lines) {
         List<TLCEvent> events = new ArrayList<>();
-        Consumer<String> parserOuter = new Consumer<>() {
-            private TLCEventParser parser = TLCEventParser.create(events::add);
-            @Override
-            public void accept(String s) {
-                parser = parser.addLine(s);
-            }
-        };
+        TLCEventParser parser = TLCEventParser.create(events::add);
+        for (String line : lines) {
+            parser = parser.addLine(line);
+        }
+        return events.stream().map(TLCEvent::toString).collect(Collectors.joining("\n"));
+    }
+
+    private static String output(String fileName) {
+        return TestUtils.resourceToString("tlc/eventparsing/fixtures/" + fileName + ".out");
+    }
 
-        String output = TestUtils.resourceToString("tlc/eventparsing/fixtures/" + fileName + ".out");
-        output.lines().forEach(parserOuter);
-        String expected = TestUtils.resourceToString("tlc/eventparsing/fixtures/" + fileName + ".txt").trim();
-        Assert.assertEquals(expected, events.stream().map(TLCEvent::toString).collect(Collectors.joining("\n")));
+    private static String expected(String fileName) {
+        return TestUtils.resourceToString("tlc/eventparsing/fixtures/" + fileName + ".txt").trim();
     }
 }
@@ -0,0 +1,58 @@
+package com.mayreh.intellij.plugin.tlaplus.run.parsing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class TLCMessageFramingTest {
+    @Test
+    public void testParseStart() {
+        assertEquals(new TLCMessage(2262, 0), TLCMessageFraming.parseStart("@!@!@STARTMSG 2262:0 @!@!@"));
+        assertEquals(new TLCMessage(2185, null), TLCMessageFraming.parseStart("@!@!@STARTMSG 2185 @!@!@"));
+        assertEquals(new TLCMessage(1000, 1), TLCMessageFraming.parseStart("foo @!@!@STARTMSG 1000:1 @!@!@"));
+
+        assertNull(TLCMessageFraming.parseStart("Progress(3) at 2021-01-01 00:00:00"));
+        assertNull(TLCMessageFraming.parseStart("@!@!@STARTMSG @!@!@"));
+        assertNull(TLCMessageFraming.parseStart("@!@!@STARTMSG 2262: @!@!@"));
+        assertNull(TLCMessageFraming.parseStart("@!@!@STARTMSG 2262:0"));
+        assertNull(TLCMessageFraming.parseStart("@!@!@ENDMSG 2262 @!@!@"));
+    }
+
+    @Test
+    public void testIsEnd() {
+        assertTrue(TLCMessageFraming.isEnd("@!@!@ENDMSG 2262 @!@!@"));
+        assertTrue(TLCMessageFraming.isEnd(new StringBuilder("@!@!@ENDMSG 2262 @!@!@")));
+
+        assertFalse(TLCMessageFraming.isEnd("@!@!@ENDMSG 2262"));
+        assertFalse(TLCMessageFraming.isEnd("@!@!@STARTMSG 2262:0 @!@!@"));
+        assertFalse(TLCMessageFraming.isEnd(""));
+    }
+
+    @Test
+    public void testJoinedLines() {
+        List<String> lines = Arrays.asList("Progress(12) at 2021-01-01 00:00:00: 1,024 states generated", "",
+                                           "", ", 512 distinct states found");
+        for (String separator : Arrays.asList("", " ", "\n")) {
+            JoinedLines joined = new JoinedLines(lines, separator);
+            String expected = String.join(separator, lines);
+            assertEquals(expected.length(), joined.length());
+            for (int i = 0; i < expected.length(); i++) {
+                assertEquals(expected.charAt(i), joined.charAt(i));
+            }
+            assertEquals(expected, joined.toString());
+            assertEquals(expected.substring(3, 20), joined.subSequence(3, 20).toString());
+        }
+
+        Matcher matcher = Pattern.compile("([\\d,]+) distinct").matcher(new JoinedLines(lines, " "));
+        assertTrue(matcher.find());
+        assertEquals("512", matcher.group(1));
+    }
+}
@@ -0,0 +1,117 @@
+package com.mayreh.intellij.plugin.tlaplus.run.ui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.impl.LaterInvocator;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.mayreh.intellij.plugin.tlaplus.run.parsing.TLCEvent;
+import com.mayreh.intellij.plugin.tlaplus.run.parsing.TLCEvent.ProcessTerminated;
+
+public class TLCOutputPipelineTest extends BasePlatformTestCase {
+    private static final int TIMEOUT_SECONDS = 30;
+
+    private static class RecordingSink implements TLCOutputPipeline.Sink {
+        private final StringBuilder text = new StringBuilder();
+        private final List<TLCEvent> events = Collections.synchronizedList(new ArrayList<>());
+        private int prints;
+
+        @Override
+        public void printInConsole(String text) {
+            assertTrue(ApplicationManager.getApplication().isDispatchThread());
+            this.text.append(text);
+            prints++;
+        }
+
+        @Override
+        public void clearConsole() {
+            text.setLength(0);
+        }
+
+        @Override
+        public void onEvent(TLCEvent event) {
+            events.add(event);
+        }
+
+        boolean terminated() {
+            return !events.isEmpty() && events.get(events.size() - 1) instanceof ProcessTerminated;
+        }
+    }
+
+    private RecordingSink sink;
+    private TLCOutputPipeline pipeline;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        sink = new RecordingSink();
+        pipeline = new TLCOutputPipeline(sink, getTestRootDisposable());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            Disposer.dispose(pipeline);
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testOutputIsBatched() {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            String line = "line " + i + "\n";
+            expected.append(line);
+            pipeline.offerText(line);
+        }
+        pipeline.offerExit(0);
+
+        PlatformTestUtil.waitWithEventsDispatching("Output is not delivered", sink::terminated, TIMEOUT_SECONDS);
+        assertEquals(expected.toString(), sink.text.toString());
+        // 1000 lines and the process exit
+        assertEquals(1001, sink.events.size());
+        assertTrue("Output should be delivered in batches: " + sink.prints, sink.prints < 1000);
+    }
+
+    public void testProducerIsBlockedWhileEdtIsBusy() throws Exception {
+        String chunk = "x".repeat(1023) + "\n";
+        // the pending batch and the queue can hold about 2MB, while the console isn't trimmed up to 4MB
+        int chunks = 3072;
+        AtomicInteger offered = new AtomicInteger();
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+            for (int i = 0; i < chunks; i++) {
+                pipeline.offerText(chunk);
+                offered.incrementAndGet();
+            }
+            pipeline.offerExit(0);
+        });
+
+        // EDT (i.e. this thread) doesn't consume batches, so the producer must be blocked
+        // once both the pending batch and the queue are full
+        Thread.sleep(2000);
+        assertTrue("Producer should be blocked: " + offered.get(), offered.get() < chunks);
+
+        PlatformTestUtil.waitWithEventsDispatching("Output is not delivered", sink::terminated, TIMEOUT_SECONDS);
+        assertEquals(chunks, offered.get());
+        assertEquals((long) chunk.length() * chunks, sink.text.length());
+    }
+
+    public void testOutputIsDeliveredWhileModalDialogIsShown() {
+        Object modalEntity = new Object();
+        LaterInvocator.enterModal(modalEntity);
+        try {
+            pipeline.offerText("line\n");
+            pipeline.offerExit(0);
+            PlatformTestUtil.waitWithEventsDispatching("Output is not delivered", sink::terminated, TIMEOUT_SECONDS);
+            assertEquals("line\n", sink.text.toString());
+        } finally {
+            LaterInvocator.leaveModal(modalEntity);
+        }
+    }
+}
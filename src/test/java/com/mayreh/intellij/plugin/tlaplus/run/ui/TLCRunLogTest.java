@@ -0,0 +1,123 @@
+package com.mayreh.intellij.plugin.tlaplus.run.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TLCRunLogTest {
+    private TLCRunLog runLog;
+
+    @Before
+    public void setUp() throws IOException {
+        runLog = new TLCRunLog(Files.createTempFile("tlc-", ".log"));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        runLog.close();
+    }
+
+    @Test
+    public void testReadLinesAcrossIndexedLines() throws IOException {
+        int lineCount = TLCRunLog.INDEX_INTERVAL * 3 + 10;
+        List<String> expected = new ArrayList<>();
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < lineCount; i++) {
+            // multi-byte characters make byte offsets differ from char offsets
+            String line = "Line " + i + (i % 2 == 0 ? " \u03b1\u2227\u03b2" : "");
+            expected.add(line);
+            output.append(line).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        // append in chunks which don't align with lines
+        for (int i = 0; i < output.length(); i += 777) {
+            runLog.append(output.subSequence(i, Math.min(i + 777, output.length())));
+        }
+
+        assertEquals(lineCount, runLog.lineCount());
+        assertEquals(expected.subList(0, 5), runLog.readLines(0, 5));
+        assertEquals(expected.subList(1020, 1030), runLog.readLines(1020, 10));
+        assertEquals(expected.subList(2048, 3048), runLog.readLines(2048, 1000));
+        assertEquals(expected.subList(lineCount - 3, lineCount), runLog.readLines(lineCount - 3, 10));
+        assertEquals(List.of(), runLog.readLines(lineCount, 10));
+    }
+
+    @Test
+    public void testUnterminatedLastLine() throws IOException {
+        runLog.append("first\nsec");
+        runLog.append("ond");
+
+        assertEquals(2, runLog.lineCount());
+        assertEquals(List.of("first", "second"), runLog.readLines(0, 10));
+
+        runLog.append("\n");
+        assertEquals(2, runLog.lineCount());
+    }
+
+    @Test
+    public void testFind() throws IOException {
+        for (int i = 0; i < TLCRunLog.INDEX_INTERVAL * 2; i++) {
+            runLog.append(i == 1500 ? "Error: Invariant TypeOK is violated.\n" : "Progress(" + i + ")\n");
+        }
+
+        assertEquals(1500, runLog.find("TypeOK", 0, true));
+        assertEquals(1500, runLog.find("TypeOK", 1500, true));
+        assertEquals(-1, runLog.find("TypeOK", 1501, true));
+        assertEquals(-1, runLog.find("typeok", 0, true));
+        assertEquals(1500, runLog.find("typeok", 0, false));
+    }
+
+    @Test
+    public void testReadWhileAppending() throws Exception {
+        int lineCount = TLCRunLog.INDEX_INTERVAL * 4;
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < lineCount; i++) {
+                    runLog.append("Line " + i + "\n");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            long count = runLog.lineCount();
+            // lines are appended at once, so read lines are never cut off
+            for (String line : runLog.readLines(Math.max(0, count - 10), 10)) {
+                assertTrue(line, line.matches("Line \\d+"));
+            }
+            runLog.find("Line", Math.max(0, count - 10), true);
+        }
+        writer.join();
+
+        assertEquals(lineCount, runLog.lineCount());
+        assertEquals(lineCount - 1, runLog.find("Line " + (lineCount - 1), 0, true));
+    }
+
+    @Test
+    public void testTailStartsAtLine() throws IOException {
+        runLog.append("aaaa\nbbbb\ncccc\n");
+
+        assertEquals("cccc\n", runLog.tail(7));
+        assertEquals("bbbb\ncccc\n", runLog.tail(10));
+        assertEquals("aaaa\nbbbb\ncccc\n", runLog.tail(100));
+    }
+
+    @Test
+    public void testCloseDeletesFile() throws IOException {
+        Path path = runLog.path();
+        runLog.append("output\n");
+        runLog.close();
+
+        assertEquals(false, Files.exists(path));
+    }
+}
@@ -14,4 +14,14 @@ public class StringUtilTest {
 
         assertEquals(0, StringUtil.offsetToColumn("abcdef\r\nghijkl", 8));
     }
+
+    @Test
+    public void testLineStartOffset() {
+        assertEquals(0, StringUtil.lineStartOffset("abcdef\nghijkl", 3));
+        assertEquals(0, StringUtil.lineStartOffset("abcdef\nghijkl", 6));
+        assertEquals(7, StringUtil.lineStartOffset("abcdef\nghijkl", 7));
+        assertEquals(7, StringUtil.lineStartOffset("abcdef\nghijkl", 999));
+
+        assertEquals(8, StringUtil.lineStartOffset("abcdef\r\nghijkl", 9));
+    }
 }
@@ -0,0 +1,46 @@
+---- MODULE PlusCalTranslated ----
+EXTENDS Naturals, TLC
+
+CONSTANT N
+
+(* --algorithm counter
+variables count = 0, done = FALSE;
+process worker \in 1..N
+begin
+  Inc:
+    count := count + 1;
+    done := TRUE;
+end process;
+end algorithm; *)
+\* BEGIN TRANSLATION
+VARIABLES count, done, pc
+
+vars == << count, done, pc >>
+
+ProcSet == (1..N)
+
+Init == (* Global variables *)
+        /\ count = 0
+        /\ done = FALSE
+        /\ pc = [self \in ProcSet |-> "Inc"]
+
+Inc(self) == /\ pc[self] = "Inc"
+             /\ count' = count + 1
+             /\ done' = TRUE
+             /\ pc' = [pc EXCEPT ![self] = "Done"]
+
+worker(self) == Inc(self)
+
+(* Allow infinite stuttering to prevent deadlock on termination. *)
+Terminating == /\ \A self \in ProcSet: pc[self] = "Done"
+               /\ UNCHANGED vars
+
+Next == (\E self \in 1..N: worker(self))
+           \/ Terminating
+
+Spec == Init /\ [][Next]_vars
+
+Termination == <>(\A self \in ProcSet: pc[self] = "Done")
+
+\* END TRANSLATION
+====
@@ -0,0 +1,17 @@
+---- MODULE Reference ----
+EXTENDS Naturals
+VARIABLE x
+Add(a, b) == a + b
+a ++ b == a + b
+Apply(F(_), v) == F(v)
+Foo == <error descr="Cannot resolve symbol 'Undefined'">Undefined</error> + x
+Bar == <error descr="'Add' takes 2 argument(s) but 1 given">Add</error>(1)
+Baz == Add(1, 2) + (1 ++ 2) + Apply(LAMBDA y : y + 1, 1)
+Qux == \E z : z \in Nat
+Fn == [w \in Nat |-> w]
+Fn2 == [<<u, v>> \in Nat \X Nat, t \in Nat |-> u + v + t]
+Builtin == ({TRUE, FALSE} = BOOLEAN) /\ ("s" \in STRING)
+Rec == [c |-> <error descr="Cannot resolve symbol 'c'">c</error>]
+Field == <error descr="Cannot resolve symbol 'r'">r</error>.r
+Scope == (\E q : q \in Nat) /\ <error descr="Cannot resolve symbol 'q'">q</error>
+====
@@ -0,0 +1,6 @@
+---- MODULE Symbols_A ----
+CONSTANT Capacity
+VARIABLE queue
+Enqueue(x) == queue' = Append(queue, x)
+Sum[n \in Nat] == IF n = 0 THEN 0 ELSE n + Sum[n - 1]
+==========================
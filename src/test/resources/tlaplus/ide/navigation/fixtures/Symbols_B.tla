@@ -0,0 +1,4 @@
+---- MODULE Symbols_B ----
+Enqueue == TRUE
+Init == LET Local == 1 IN Local
+==========================
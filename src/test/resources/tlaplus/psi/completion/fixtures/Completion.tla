@@ -0,0 +1,8 @@
+---- MODULE Completion ----
+EXTENDS Completion_Base
+VARIABLE x
+Cap == 1
+Other == 2
+Init == LET CLocal == 1 IN C<caret>
+CLater == 3
+================================
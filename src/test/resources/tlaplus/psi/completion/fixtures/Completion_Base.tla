@@ -0,0 +1,5 @@
+---- MODULE Completion_Base ----
+CONSTANT Capacity
+Combine(x, y) == x + y
+LOCAL CHidden == 1
+================================
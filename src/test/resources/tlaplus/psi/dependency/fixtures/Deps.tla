@@ -0,0 +1,7 @@
+---- MODULE Deps ----
+EXTENDS Deps_Base
+Reset == x' = 0
+Next == Inc \/ Reset
+Spec == x = 0 /\ [][Next]_x
+Inv == x >= 0
+=====================
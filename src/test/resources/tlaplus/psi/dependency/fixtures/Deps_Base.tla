@@ -0,0 +1,4 @@
+---- MODULE Deps_Base ----
+VARIABLE x
+Inc == x' = x + 1
+==========================
@@ -0,0 +1,4 @@
+---- MODULE Ambiguous_A ----
+EXTENDS Ambiguous_B, Ambiguous_C
+Bar == Fo<caret>o
+====
@@ -0,0 +1,4 @@
+---- MODULE Ambiguous_B ----
+EXTENDS Ambiguous_D
+Foo == 1
+====
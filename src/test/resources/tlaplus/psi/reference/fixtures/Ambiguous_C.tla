@@ -0,0 +1,4 @@
+---- MODULE Ambiguous_C ----
+EXTENDS Ambiguous_D
+Foo == 2
+====
@@ -0,0 +1,3 @@
+---- MODULE Ambiguous_D ----
+Baz == 3
+====
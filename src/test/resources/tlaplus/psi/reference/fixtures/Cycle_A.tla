@@ -0,0 +1,4 @@
+---- MODULE Cycle_A ----
+EXTENDS Cycle_B
+Foo == Ba<caret>r
+====
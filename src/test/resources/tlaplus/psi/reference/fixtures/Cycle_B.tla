@@ -0,0 +1,4 @@
+---- MODULE Cycle_B ----
+EXTENDS Cycle_A
+Bar == 1
+====
@@ -0,0 +1,4 @@
+---- MODULE Diamond ----
+EXTENDS Ambiguous_B, Ambiguous_C
+Bar == Ba<caret>z
+====
@@ -0,0 +1,5 @@
+---- MODULE ForwardReference ----
+Foo == LET Baz == Ba<caret>r
+           Bar == 1
+       IN Baz
+====
@@ -0,0 +1,4 @@
+---- MODULE Layer_A ----
+L1 == INSTANCE Layer_B
+Foo == L1!L2!Ba<caret>r
+====
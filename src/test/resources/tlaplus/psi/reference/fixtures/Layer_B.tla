@@ -0,0 +1,3 @@
+---- MODULE Layer_B ----
+L2 == INSTANCE Layer_C
+====
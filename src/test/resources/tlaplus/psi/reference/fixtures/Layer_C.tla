@@ -0,0 +1,3 @@
+---- MODULE Layer_C ----
+Bar == 1
+====
@@ -0,0 +1,5 @@
+---- MODULE StandardModule ----
+EXTENDS Integers
+
+Foo == 1 \in Na<caret>t
+==========================
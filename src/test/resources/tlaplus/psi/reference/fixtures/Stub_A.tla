@@ -0,0 +1,5 @@
+---- MODULE Stub_A ----
+EXTENDS Stub_B
+
+Bar == Ba<caret>z
+==========================
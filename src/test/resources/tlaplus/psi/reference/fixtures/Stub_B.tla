@@ -0,0 +1,5 @@
+---- MODULE Stub_B ----
+LOCAL Hidden == 1
+Foo(x, y) == x
+INSTANCE Stub_C
+==========================
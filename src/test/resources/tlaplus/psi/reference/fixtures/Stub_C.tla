@@ -0,0 +1,3 @@
+---- MODULE Stub_C ----
+Baz == 1
+==========================